@@ -0,0 +1,37 @@
+package directories.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs benchmarks once per thread count, results of every run are written as JSON
+ * to compare with a baseline. Settings are system properties, see profile @code{benchmarks} in pom.xml.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = System.getProperty("benchmark.include", ".*");
+        String[] rows = System.getProperty("benchmark.rows", "1000").split(",");
+        int forks = Integer.parseInt(System.getProperty("benchmark.forks", "1"));
+        File resultDirectory = new File(System.getProperty("benchmark.result", "target/jmh"));
+        resultDirectory.mkdirs();
+
+        for (String threads : System.getProperty("benchmark.threads", "1").split(",")) {
+            Options options = new OptionsBuilder()
+                    .include(BenchmarkRunner.class.getPackageName() + ".*" + include)
+                    .param("rows", rows)
+                    .threads(Integer.parseInt(threads.trim()))
+                    .forks(forks)
+                    .jvmArgsAppend("-Xmx2g")
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDirectory, "threads-" + threads.trim() + ".json").getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
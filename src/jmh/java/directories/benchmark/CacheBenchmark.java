@@ -0,0 +1,74 @@
+package directories.benchmark;
+
+import directories.config.CachingConfig;
+import directories.model.Region;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache-aside access to the @code{findById} cache built by @code{CachingConfig}.
+ * Keys are uniform over the directory, so hit rate falls when directory outgrows the cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class CacheBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private Cache cache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(CachingConfig.class)
+                .web(WebApplicationType.NONE)
+                .run();
+        cache = context.getBean(CacheManager.class).getCache(CachingConfig.FIND_BY_ID);
+        for (long i = 1; i <= rows; i++) {
+            cache.put(i, DirectoryState.region(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Region getOrLoad() {
+        long id = ThreadLocalRandom.current().nextLong(1, rows + 1);
+        Region region = cache.get(id, Region.class);
+        if (region == null) {
+            region = DirectoryState.region(id);
+            cache.put(id, region);
+        }
+        return region;
+    }
+
+    @Benchmark
+    public void evict() {
+        cache.evict(ThreadLocalRandom.current().nextLong(1, rows + 1));
+    }
+}
@@ -0,0 +1,77 @@
+package directories.benchmark;
+
+import directories.Application;
+import directories.mapper.RegionMapper;
+import directories.model.Region;
+import directories.service.RegionService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Running application with directory of given size, shared by all benchmark threads.
+ */
+@State(Scope.Benchmark)
+public class DirectoryState {
+
+    private static final int LOAD_BATCH = 10000;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"database", "snapshot"})
+    public String readEngine;
+
+    public RegionService regionService;
+    public RegionMapper regionMapper;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .properties("server.port=0",
+                        "directories.read-engine=" + readEngine,
+                        "logging.level.directories=WARN")
+                .run();
+        regionService = context.getBean(RegionService.class);
+        regionMapper = context.getBean(RegionMapper.class);
+        List<Region> batch = new ArrayList<>(LOAD_BATCH);
+        for (int i = 1; i <= rows; i++) {
+            batch.add(region(i));
+            if (batch.size() == LOAD_BATCH || i == rows) {
+                regionService.addBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * @return index of a random existing region, regions are loaded with indexes 1..rows
+     */
+    public long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    /**
+     * @param i index of region
+     * @return data of region loaded with given index
+     */
+    public static Region region(long i) {
+        return new Region(i, "Region" + i, "R" + i);
+    }
+}
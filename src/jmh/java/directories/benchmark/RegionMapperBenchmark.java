@@ -0,0 +1,48 @@
+package directories.benchmark;
+
+import directories.model.Region;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries of @code{RegionMapper} against H2, without caches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RegionMapperBenchmark {
+
+    @Benchmark
+    public Region findById(DirectoryState state) {
+        return state.regionMapper.findById(state.randomId());
+    }
+
+    @Benchmark
+    public List<Region> findByName(DirectoryState state) {
+        return state.regionMapper.findByName(DirectoryState.region(state.randomId()).getName());
+    }
+
+    @Benchmark
+    public List<Region> findByShortName(DirectoryState state) {
+        return state.regionMapper.findByShortName(DirectoryState.region(state.randomId()).getShortName());
+    }
+
+    @Benchmark
+    public Region findByNameAndShortName(DirectoryState state) {
+        Region region = DirectoryState.region(state.randomId());
+        return state.regionMapper.findByNameAndShortName(region.getName(), region.getShortName());
+    }
+
+    @Benchmark
+    public List<Region> findRegionsAfter(DirectoryState state) {
+        return state.regionMapper.findRegionsAfter(state.randomId(), 100);
+    }
+}
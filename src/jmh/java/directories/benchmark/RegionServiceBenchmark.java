@@ -0,0 +1,53 @@
+package directories.benchmark;
+
+import directories.model.Region;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups through @code{RegionService} with caches and configured read engine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RegionServiceBenchmark {
+
+    @Benchmark
+    public Region findRegion(DirectoryState state) {
+        return state.regionService.findRegion(state.randomId());
+    }
+
+    @Benchmark
+    public List<Region> findByName(DirectoryState state) {
+        return state.regionService.findByName(DirectoryState.region(state.randomId()).getName());
+    }
+
+    @Benchmark
+    public List<Region> findByShortName(DirectoryState state) {
+        return state.regionService.findByShortName(DirectoryState.region(state.randomId()).getShortName());
+    }
+
+    @Benchmark
+    public Region findByNameAndShortName(DirectoryState state) {
+        Region region = DirectoryState.region(state.randomId());
+        return state.regionService.findByNameAndShortName(region.getName(), region.getShortName());
+    }
+
+    @Benchmark
+    public List<Region> findAllRegions(DirectoryState state) {
+        return state.regionService.findAllRegions();
+    }
+
+    @Benchmark
+    public List<Region> findRegionsPage(DirectoryState state) {
+        return state.regionService.findRegionsPage(state.randomId(), 100);
+    }
+}
@@ -0,0 +1,76 @@
+package directories.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import directories.model.Region;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson encoding and decoding of the @code{get_all} response in JSON and CBOR.
+ * Payload sizes of both formats are printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private static final TypeReference<List<Region>> REGIONS = new TypeReference<>() {};
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rows;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper cborMapper = new CBORMapper();
+    private List<Region> regions;
+    private byte[] json;
+    private byte[] cbor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        regions = new ArrayList<>(rows);
+        for (long i = 1; i <= rows; i++) {
+            regions.add(DirectoryState.region(i));
+        }
+        json = objectMapper.writeValueAsBytes(regions);
+        cbor = cborMapper.writeValueAsBytes(regions);
+        System.out.println("rows " + rows + ": json " + json.length + " bytes, cbor " + cbor.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return objectMapper.writeValueAsBytes(regions);
+    }
+
+    @Benchmark
+    public List<Region> decodeJson() throws IOException {
+        return objectMapper.readValue(json, REGIONS);
+    }
+
+    @Benchmark
+    public byte[] encodeCbor() throws IOException {
+        return cborMapper.writeValueAsBytes(regions);
+    }
+
+    @Benchmark
+    public List<Region> decodeCbor() throws IOException {
+        return cborMapper.readValue(cbor, REGIONS);
+    }
+}
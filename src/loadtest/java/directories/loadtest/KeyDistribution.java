@@ -0,0 +1,50 @@
+package directories.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Chooses which of the loaded regions a request uses, by position in the list of regions.
+ */
+public interface KeyDistribution {
+
+    /**
+     * @param random random source of the calling thread
+     * @return position of region
+     */
+    int next(SplittableRandom random);
+
+    static KeyDistribution uniform(int size) {
+        return random -> random.nextInt(size);
+    }
+
+    /**
+     * Zipf distribution: rank k is chosen with probability proportional to 1 / k^exponent.
+     * Ranks are spread over positions by a fixed permutation, so hot regions are not only the oldest ones.
+     *
+     * @param size number of regions
+     * @param exponent skew, 0 is uniform, about 1 is typical for lookups by popularity
+     * @return distribution
+     */
+    static KeyDistribution zipf(int size, double exponent) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 0; rank < size; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        double total = sum;
+        int[] positions = new int[size];
+        Random shuffle = new Random(size);
+        for (int i = 0; i < size; i++) {
+            int j = shuffle.nextInt(i + 1);
+            positions[i] = positions[j];
+            positions[j] = i;
+        }
+        return random -> {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            return positions[Math.min(rank < 0 ? -rank - 1 : rank, size - 1)];
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package directories.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+
+/**
+ * Settings of a load test run, read from system properties, see profile @code{loadtest} in pom.xml.
+ */
+public class LoadScenario {
+
+    private final String name;
+    private final int keys;
+    private final double readRatio;
+    private final String distribution;
+    private final double zipfExponent;
+    private final int concurrency;
+    private final Duration warmup;
+    private final Duration duration;
+
+    public LoadScenario(String name, int keys, double readRatio, String distribution, double zipfExponent,
+                        int concurrency, Duration warmup, Duration duration) {
+        this.name = name;
+        this.keys = keys;
+        this.readRatio = readRatio;
+        this.distribution = distribution;
+        this.zipfExponent = zipfExponent;
+        this.concurrency = concurrency;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    public static LoadScenario fromSystemProperties() {
+        return new LoadScenario(
+                System.getProperty("loadtest.name", "loadtest"),
+                Integer.parseInt(System.getProperty("loadtest.keys", "10000")),
+                Double.parseDouble(System.getProperty("loadtest.read-ratio", "0.9")),
+                System.getProperty("loadtest.distribution", "zipf"),
+                Double.parseDouble(System.getProperty("loadtest.zipf-exponent", "0.99")),
+                Integer.parseInt(System.getProperty("loadtest.concurrency", "16")),
+                DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "10s")),
+                DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "60s")));
+    }
+
+    /**
+     * @param size number of regions
+     * @return distribution of keys chosen by this scenario
+     */
+    public KeyDistribution keyDistribution(int size) {
+        switch (distribution) {
+            case "uniform":
+                return KeyDistribution.uniform(size);
+            case "zipf":
+                return KeyDistribution.zipf(size, zipfExponent);
+            default:
+                throw new IllegalArgumentException("Unknown distribution " + distribution + ", expected zipf or uniform");
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getKeys() {
+        return keys;
+    }
+
+    public double getReadRatio() {
+        return readRatio;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        return "keys=" + keys + " read-ratio=" + readRatio + " distribution=" + distribution
+                + ("zipf".equals(distribution) ? " zipf-exponent=" + zipfExponent : "")
+                + " concurrency=" + concurrency + " warmup=" + warmup + " duration=" + duration;
+    }
+}
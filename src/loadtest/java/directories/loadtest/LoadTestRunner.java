@@ -0,0 +1,61 @@
+package directories.loadtest;
+
+import directories.Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Boots the application on a random local port in this JVM, seeds the directory and runs the load scenario:
+ * warm-up first, then the measured run. Report is written to @code{<loadtest.result>/<loadtest.name>.txt}
+ * and printed. Settings are system properties, see profile @code{loadtest} in pom.xml,
+ * @code{loadtest.application-args} are passed to the application, e.g. to compare read engines.
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadScenario scenario = LoadScenario.fromSystemProperties();
+        File resultDirectory = new File(System.getProperty("loadtest.result", "target/loadtest"));
+        String[] applicationArgs = Arrays.stream(System.getProperty("loadtest.application-args", "").split("\\s+"))
+                .filter(arg -> !arg.isEmpty())
+                .toArray(String[]::new);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .properties("server.port=0", "logging.level.directories=WARN")
+                .run(applicationArgs);
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            RegionLoad load = new RegionLoad(URI.create("http://localhost:" + port + "/region/"), scenario);
+            System.out.println("seeded: " + load.seed() + ", " + load.size() + " regions");
+            System.out.println("warm-up " + scenario.getWarmup() + ", " + scenario);
+            load.run(scenario.getWarmup());
+            load.reset();
+            System.out.println("measuring " + scenario.getDuration());
+            long start = System.nanoTime();
+            load.run(scenario.getDuration());
+            long elapsed = System.nanoTime() - start;
+
+            ByteArrayOutputStream report = new ByteArrayOutputStream();
+            try (PrintStream out = new PrintStream(report, true, StandardCharsets.UTF_8)) {
+                out.println("application args " + String.join(" ", applicationArgs));
+                load.report(out, elapsed);
+            }
+            resultDirectory.mkdirs();
+            Path file = resultDirectory.toPath().resolve(scenario.getName() + ".txt");
+            Files.write(file, report.toByteArray());
+            System.out.print(report.toString(StandardCharsets.UTF_8));
+            System.out.println("report written to " + file);
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package directories.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import directories.model.Region;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Drives @code{/region/*} endpoints of a running application with a mix of lookups and updates.
+ * Every worker sends its next request as soon as the previous one is answered, latency of every request
+ * is recorded into a histogram of its operation.
+ */
+class RegionLoad {
+
+    /**
+     * Requests sent by the load: lookups by id and by name share the read ratio equally,
+     * updates change shortName so names used by lookups stay valid.
+     */
+    enum Operation {
+        GET("get"),
+        GET_BY_NAME("get_by_name"),
+        UPDATE_SHORTNAME("update_shortname");
+
+        private final String path;
+
+        Operation(String path) {
+            this.path = path;
+        }
+    }
+
+    private static final String NAME_PREFIX = "LoadRegion";
+    private static final String SHORT_NAME_PREFIX = "LR";
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI base;
+    private final LoadScenario scenario;
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final AtomicLong updates = new AtomicLong();
+
+    private List<Region> regions;
+    private KeyDistribution keys;
+
+    RegionLoad(URI base, LoadScenario scenario) {
+        this.base = base;
+        this.scenario = scenario;
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Imports regions of the scenario, regions already in the directory are kept, then loads
+     * the whole directory to choose keys from.
+     *
+     * @return import summary returned by the application
+     */
+    String seed() throws IOException, InterruptedException {
+        StringBuilder csv = new StringBuilder("name,shortName\n");
+        for (int i = 0; i < scenario.getKeys(); i++) {
+            csv.append(NAME_PREFIX).append(i).append(',').append(SHORT_NAME_PREFIX).append(i).append('\n');
+        }
+        HttpResponse<String> imported = client.send(HttpRequest.newBuilder(base.resolve("import?format=csv"))
+                        .header("Content-Type", "text/csv")
+                        .POST(HttpRequest.BodyPublishers.ofString(csv.toString()))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (imported.statusCode() != 200) {
+            throw new IllegalStateException("Import failed with " + imported.statusCode() + ": " + imported.body());
+        }
+        HttpResponse<Stream<String>> exported = client.send(
+                HttpRequest.newBuilder(base.resolve("export?format=ndjson")).build(),
+                HttpResponse.BodyHandlers.ofLines());
+        regions = new ArrayList<>();
+        for (String line : (Iterable<String>) exported.body()::iterator) {
+            if (!line.isEmpty()) {
+                regions.add(objectMapper.readValue(line, Region.class));
+            }
+        }
+        keys = scenario.keyDistribution(regions.size());
+        return imported.body();
+    }
+
+    int size() {
+        return regions.size();
+    }
+
+    /**
+     * Sends requests from @code{concurrency} workers until the duration elapses.
+     *
+     * @param duration time of the run
+     */
+    void run(Duration duration) throws InterruptedException, ExecutionException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        SplittableRandom seeds = new SplittableRandom();
+        ExecutorService workers = Executors.newFixedThreadPool(scenario.getConcurrency());
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < scenario.getConcurrency(); i++) {
+                SplittableRandom random = seeds.split();
+                results.add(workers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        call(random);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Drops everything recorded so far, used after warm-up.
+     */
+    void reset() {
+        for (Operation operation : Operation.values()) {
+            recorders.get(operation).reset();
+            errors.get(operation).reset();
+        }
+    }
+
+    /**
+     * Prints throughput and latency percentiles of every operation, then full latency distributions
+     * in HdrHistogram format, which HdrHistogram plotter can draw for several runs at once.
+     *
+     * @param out destination of report
+     * @param elapsedNanos measured time of the run
+     */
+    void report(PrintStream out, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            histograms.put(operation, histogram);
+            total += histogram.getTotalCount();
+        }
+        out.println("scenario " + scenario.getName() + ": " + scenario);
+        out.println("regions " + regions.size());
+        out.println(String.format(Locale.ROOT, "elapsed %.1f s, requests %d, throughput %.1f req/s",
+                seconds, total, total / seconds));
+        out.println();
+        out.println(String.format(Locale.ROOT, "%-18s %10s %8s %10s %9s %9s %9s %9s %9s %9s",
+                "operation", "count", "errors", "req/s", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            out.println(String.format(Locale.ROOT, "%-18s %10d %8d %10.1f %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f",
+                    operation.path, histogram.getTotalCount(), errors.get(operation).sum(),
+                    histogram.getTotalCount() / seconds, histogram.getMean() / 1000,
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0));
+        }
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getTotalCount() > 0) {
+                out.println();
+                out.println("# " + operation.path + " latency distribution, ms");
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private void call(SplittableRandom random) throws IOException, InterruptedException {
+        Region region = regions.get(keys.next(random));
+        Operation operation;
+        HttpRequest.Builder request;
+        if (random.nextDouble() < scenario.getReadRatio()) {
+            operation = random.nextBoolean() ? Operation.GET : Operation.GET_BY_NAME;
+            String body = operation == Operation.GET ? region.getId().toString() : region.getName();
+            request = HttpRequest.newBuilder(base.resolve(operation.path))
+                    .method("GET", HttpRequest.BodyPublishers.ofString(body));
+        } else {
+            operation = Operation.UPDATE_SHORTNAME;
+            Region update = new Region(region.getId(), region.getName(),
+                    SHORT_NAME_PREFIX + region.getId() + "." + updates.incrementAndGet());
+            request = HttpRequest.newBuilder(base.resolve(operation.path))
+                    .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(update)));
+        }
+        request.header("Content-Type", "application/json");
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        }
+        recorders.get(operation).recordValue((System.nanoTime() - start) / 1000);
+        if (status != 200) {
+            errors.get(operation).increment();
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
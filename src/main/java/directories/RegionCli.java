@@ -0,0 +1,59 @@
+package directories;
+
+import directories.model.RegionFormat;
+import directories.model.RegionImportSummary;
+import directories.service.RegionTransferService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Command line import and export of regions without web server:
+ * @code{import|export <file> [csv|ndjson] [--spring.property=value ...]}.
+ * Format defaults to the extension of file. The database is the configured one, so imported regions
+ * survive only with file persistence or snapshot file enabled.
+ */
+public class RegionCli {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !(args[0].equals("import") || args[0].equals("export"))) {
+            System.err.println("usage: import|export <file> [csv|ndjson] [--spring.property=value ...]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[1]);
+        boolean formatGiven = args.length > 2 && !args[2].startsWith("--");
+        RegionFormat format = RegionFormat.of(formatGiven ? args[2] : extension(file));
+        String[] properties = Arrays.copyOfRange(args, formatGiven ? 3 : 2, args.length);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run(properties)) {
+            RegionTransferService transferService = context.getBean(RegionTransferService.class);
+            if (args[0].equals("import")) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    RegionImportSummary summary = transferService.importRegions(in, format);
+                    System.out.println("rows " + summary.getRows() + ", created " + summary.getCreated()
+                            + ", duplicates " + summary.getDuplicates() + ", rejected " + summary.getRejected()
+                            + ", " + summary.getMillis() + " ms, " + summary.getRowsPerSecond() + " rows/s");
+                }
+            }
+            else {
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    System.out.println("rows " + transferService.exportRegions(out, format));
+                }
+            }
+        }
+    }
+
+    private static String extension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot + 1) : "";
+    }
+}
@@ -0,0 +1,109 @@
+package directories.cache;
+
+import directories.event.RegionChangeEvent;
+import directories.event.RegionResyncEvent;
+import directories.model.Region;
+import directories.model.RegionNames;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static directories.config.CachingConfig.*;
+
+/**
+ * Evicts cache entries affected by a change of the directory.
+ * Keys of both old and new state are evicted: old ones hold removed data,
+ * lists cached for new ones miss the changed regions.
+ * Loaded values are put only through @code{put}: a value loaded while a change was applied is not kept,
+ * the generation taken before the load must still be current after the entry is put.
+ */
+@Component
+public class RegionCacheInvalidator {
+
+    @Autowired
+    CacheManager cacheManager;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @return generation to take before loading a lookup
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Keeps loaded value unless the directory changed since the generation was taken.
+     *
+     * @param cacheName name of lookup cache
+     * @param key key of lookup
+     * @param value loaded value
+     * @param loadGeneration generation taken before the load
+     */
+    public void put(String cacheName, Object key, Object value, long loadGeneration) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || generation.get() != loadGeneration) {
+            return;
+        }
+        cache.put(key, value);
+        if (generation.get() != loadGeneration) {
+            cache.evict(key);
+        }
+    }
+
+    /**
+     * Evicts entries of changed regions.
+     *
+     * @param event changed regions
+     */
+    @EventListener
+    public void onRegionChange(RegionChangeEvent event) {
+        generation.incrementAndGet();
+        for (Region region : event.getBefore()) {
+            evict(region);
+        }
+        for (Region region : event.getAfter()) {
+            evict(region);
+        }
+        evict(FIND_ALL_REGIONS, SimpleKey.EMPTY);
+    }
+
+    /**
+     * Evicts all entries of all caches.
+     */
+    @EventListener(RegionResyncEvent.class)
+    public void clear() {
+        generation.incrementAndGet();
+        for (String name : CACHE_NAMES) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private void evict(Region region) {
+        evict(FIND_BY_ID, region.getId());
+        evict(FIND_BY_NAME, region.getName());
+        evict(FIND_BY_SHORT_NAME, region.getShortName());
+        evict(FIND_BY_NAME_AND_SHORT_NAME, Arrays.asList(region.getName(), region.getShortName()));
+        String nameKey = RegionNames.key(region.getName());
+        String shortNameKey = RegionNames.key(region.getShortName());
+        evict(FIND_BY_NAME_KEY, nameKey);
+        evict(FIND_BY_SHORT_NAME_KEY, shortNameKey);
+        evict(FIND_BY_NAME_AND_SHORT_NAME_KEY, Arrays.asList(nameKey, shortNameKey));
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
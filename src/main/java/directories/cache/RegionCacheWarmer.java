@@ -0,0 +1,96 @@
+package directories.cache;
+
+import directories.exception.ResponseException;
+import directories.model.Region;
+import directories.service.RegionService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static directories.config.CachingConfig.*;
+
+/**
+ * Fills lookup caches and the @code{get_all} body at startup. Application runners finish before
+ * the application reports readiness, so first requests are served from warm caches.
+ * Every cache gets at most its maximum size of entries, taken in index order. Entries are put with the
+ * generation taken before the load, so a write racing with warm-up leaves no stale entry.
+ * Not used with the offheap engine: it serves lookups from memory already, and warm-up would load
+ * the whole directory onto the heap.
+ */
+@Component
+@ConditionalOnExpression("${directories.cache.warm-up:true} and '${directories.read-engine:database}' != 'offheap'")
+public class RegionCacheWarmer implements ApplicationRunner {
+
+    private static final Logger LOGGER = LogManager.getLogger(RegionCacheWarmer.class);
+
+    @Autowired
+    RegionService regionService;
+
+    @Autowired
+    RegionPayloadCache payloadCache;
+
+    @Autowired
+    RegionCacheInvalidator cacheInvalidator;
+
+    @Value("${directories.cache.maximum-size:10000}")
+    private int maximumSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long generation = cacheInvalidator.generation();
+        List<Region> regions;
+        try {
+            regions = regionService.findAllRegions();
+        } catch (ResponseException e) {
+            LOGGER.info("directory is empty, nothing to warm up");
+            return;
+        }
+        Map<String, List<Region>> byName = new LinkedHashMap<>();
+        Map<String, List<Region>> byShortName = new LinkedHashMap<>();
+        int count = 0;
+        for (Region region : regions) {
+            if (count++ < maximumSize) {
+                cacheInvalidator.put(FIND_BY_ID, region.getId(), region, generation);
+                cacheInvalidator.put(FIND_BY_NAME_AND_SHORT_NAME, Arrays.asList(region.getName(), region.getShortName()),
+                        region, generation);
+            }
+            group(byName, region.getName(), region);
+            group(byShortName, region.getShortName(), region);
+        }
+        putAll(FIND_BY_NAME, byName, generation);
+        putAll(FIND_BY_SHORT_NAME, byShortName, generation);
+        payloadCache.get();
+        LOGGER.info("caches warmed up with " + regions.size() + " regions in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+
+    private void group(Map<String, List<Region>> groups, String key, Region region) {
+        List<Region> group = groups.get(key);
+        if (group == null) {
+            if (groups.size() >= maximumSize) {
+                return;
+            }
+            group = new ArrayList<>();
+            groups.put(key, group);
+        }
+        group.add(region);
+    }
+
+    private void putAll(String cacheName, Map<String, List<Region>> groups, long generation) {
+        for (Map.Entry<String, List<Region>> group : groups.entrySet()) {
+            cacheInvalidator.put(cacheName, group.getKey(), group.getValue(), generation);
+        }
+    }
+}
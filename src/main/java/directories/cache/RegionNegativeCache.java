@@ -0,0 +1,109 @@
+package directories.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import directories.event.RegionChangeEvent;
+import directories.event.RegionResyncEvent;
+import directories.exception.NotFoundException;
+import directories.model.Region;
+import directories.model.RegionNames;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static directories.config.CachingConfig.*;
+
+/**
+ * Bounded short-lived cache of lookups that found nothing.
+ * Only inserts and renames can make such a lookup find something, so entries of the new state of
+ * changed regions are evicted. A miss loaded while a change was applied is not kept: the generation
+ * taken before the load must still be current after the entry is put.
+ */
+@Component
+public class RegionNegativeCache {
+
+    private final Cache<SimpleKey, NotFoundException> misses;
+    private final AtomicLong generation = new AtomicLong();
+
+    public RegionNegativeCache(@Value("${directories.cache.negative.maximum-size:10000}") long maximumSize,
+                               @Value("${directories.cache.negative.expire-after-write:5s}") Duration expireAfterWrite) {
+        this.misses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    /**
+     * @return generation to take before loading a lookup
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * @param lookup name of lookup cache
+     * @param key key of lookup
+     * @return cached miss, null when lookup has to be loaded
+     */
+    public NotFoundException get(String lookup, Object key) {
+        return misses.getIfPresent(new SimpleKey(lookup, key));
+    }
+
+    /**
+     * Keeps miss unless the directory changed since the generation was taken.
+     *
+     * @param lookup name of lookup cache
+     * @param key key of lookup
+     * @param miss exception of the miss
+     * @param loadGeneration generation taken before the load
+     */
+    public void put(String lookup, Object key, NotFoundException miss, long loadGeneration) {
+        SimpleKey cacheKey = new SimpleKey(lookup, key);
+        if (generation.get() != loadGeneration) {
+            return;
+        }
+        misses.put(cacheKey, miss);
+        if (generation.get() != loadGeneration) {
+            misses.invalidate(cacheKey);
+        }
+    }
+
+    /**
+     * Evicts misses that new state of changed regions may answer.
+     *
+     * @param event changed regions
+     */
+    @EventListener
+    public void onRegionChange(RegionChangeEvent event) {
+        generation.incrementAndGet();
+        for (Region region : event.getAfter()) {
+            misses.invalidate(new SimpleKey(FIND_BY_ID, region.getId()));
+            misses.invalidate(new SimpleKey(FIND_BY_NAME, region.getName()));
+            misses.invalidate(new SimpleKey(FIND_BY_SHORT_NAME, region.getShortName()));
+            misses.invalidate(new SimpleKey(FIND_BY_NAME_AND_SHORT_NAME,
+                    Arrays.asList(region.getName(), region.getShortName())));
+            String nameKey = RegionNames.key(region.getName());
+            String shortNameKey = RegionNames.key(region.getShortName());
+            misses.invalidate(new SimpleKey(FIND_BY_NAME_KEY, nameKey));
+            misses.invalidate(new SimpleKey(FIND_BY_SHORT_NAME_KEY, shortNameKey));
+            misses.invalidate(new SimpleKey(FIND_BY_NAME_AND_SHORT_NAME_KEY, Arrays.asList(nameKey, shortNameKey)));
+        }
+        if (!event.getAfter().isEmpty()) {
+            misses.invalidate(new SimpleKey(FIND_ALL_REGIONS, SimpleKey.EMPTY));
+        }
+    }
+
+    /**
+     * Evicts all misses.
+     */
+    @EventListener(RegionResyncEvent.class)
+    public void clear() {
+        generation.incrementAndGet();
+        misses.invalidateAll();
+    }
+}
@@ -0,0 +1,108 @@
+package directories.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import directories.event.DirectoryVersion;
+import directories.model.Region;
+import directories.service.RegionService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized body of @code{get_all} response, plain and gzip-compressed.
+ * The body is built on the first request after a change of the directory and then served as is.
+ * Version of the directory is read before the regions, so a body never claims a newer version
+ * than its data.
+ * Not created for the offheap engine, whose directories are too large to keep a body on heap.
+ */
+@Component
+@ConditionalOnExpression("'${directories.read-engine:database}' != 'offheap'")
+public class RegionPayloadCache {
+
+    private static final Logger LOGGER = LogManager.getLogger(RegionPayloadCache.class);
+
+    @Autowired
+    RegionService regionService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    DirectoryVersion directoryVersion;
+
+    private volatile Payload payload;
+
+    /**
+     * @return body of all regions for the current version of the directory
+     */
+    public Payload get() {
+        Payload current = payload;
+        long version = directoryVersion.get();
+        if (current != null && current.version == version) {
+            return current;
+        }
+        synchronized (this) {
+            current = payload;
+            version = directoryVersion.get();
+            if (current == null || current.version != version) {
+                current = build(version, regionService.findAllRegions());
+                payload = current;
+            }
+            return current;
+        }
+    }
+
+    private Payload build(long version, List<Region> regions) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(regions);
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                out.write(json);
+            }
+            LOGGER.info("get_all body built for version " + version + ": " + json.length + " bytes, gzip "
+                    + gzip.size() + " bytes");
+            return new Payload(version, json, gzip.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Regions can't be serialized", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Body of one version of the directory.
+     */
+    public static final class Payload {
+
+        private final long version;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        Payload(long version, byte[] json, byte[] gzip) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+}
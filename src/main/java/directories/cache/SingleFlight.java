@@ -0,0 +1,84 @@
+package directories.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller loads, callers arriving while the load
+ * is in flight wait for it and get the same result or exception.
+ * Loads are keyed together with a generation, for example the directory version, so a caller never joins
+ * a load started before a change it has to observe.
+ *
+ * @param <K> type of key
+ * @param <V> type of loaded value
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<List<Object>, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final LongSupplier generation;
+    private final Counter loads;
+    private final Counter coalesced;
+
+    /**
+     * @param name name of lookup, tag of metrics
+     * @param generation current generation of data
+     * @param registry registry of @code{region.lookup.loads} and @code{region.lookup.coalesced} counters
+     */
+    public SingleFlight(String name, LongSupplier generation, MeterRegistry registry) {
+        this.generation = generation;
+        this.loads = Counter.builder("region.lookup.loads")
+                .description("Lookups loaded from the read engine")
+                .tag("lookup", name)
+                .register(registry);
+        this.coalesced = Counter.builder("region.lookup.coalesced")
+                .description("Lookups served by a load of another caller")
+                .tag("lookup", name)
+                .register(registry);
+    }
+
+    /**
+     * Loads value, or waits for the load of the same key already in flight.
+     *
+     * @param key key of value
+     * @param loader load of value
+     * @return loaded value
+     */
+    public V load(K key, Supplier<V> loader) {
+        List<Object> flightKey = Arrays.asList(key, generation.getAsLong());
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> flight = flights.putIfAbsent(flightKey, own);
+        if (flight == null) {
+            loads.increment();
+            try {
+                V value = loader.get();
+                own.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                own.completeExceptionally(e);
+                throw e;
+            } finally {
+                flights.remove(flightKey, own);
+            }
+        }
+        coalesced.increment();
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
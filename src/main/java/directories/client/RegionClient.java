@@ -0,0 +1,143 @@
+package directories.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import directories.exception.ResponseException;
+import directories.model.Region;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Client of region REST API.
+ * Responses are requested in CBOR, which is smaller and faster to decode than JSON.
+ */
+public class RegionClient {
+
+    private static final String CBOR = "application/cbor";
+    private static final TypeReference<List<Region>> REGIONS = new TypeReference<>() {};
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper cborMapper = new CBORMapper();
+
+    /**
+     * Creates client.
+     *
+     * @param baseUri address of service, for example http://localhost:8080
+     */
+    public RegionClient(URI baseUri) {
+        this(HttpClient.newHttpClient(), baseUri);
+    }
+
+    public RegionClient(HttpClient httpClient, URI baseUri) {
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+    }
+
+    /**
+     * Get region's data by index.
+     * @param id index of region
+     * @return region
+     */
+    public Region getRegion(Long id) {
+        return get("/region/get", "application/json", json(id), Region.class);
+    }
+
+    /**
+     * Get all regions.
+     * @return list of region
+     */
+    public List<Region> getRegions() {
+        return get("/region/get_all", null, HttpRequest.BodyPublishers.noBody(), REGIONS);
+    }
+
+    /**
+     * Get regions data by name.
+     * @param name full name of region
+     * @return list of region
+     */
+    public List<Region> getRegionsByName(String name) {
+        return get("/region/get_by_name", "text/plain", text(name), REGIONS);
+    }
+
+    /**
+     * Get regions data by shortname.
+     * @param shortname short name of region
+     * @return list of region
+     */
+    public List<Region> getRegionsByShortName(String shortname) {
+        return get("/region/get_by_shortname", "text/plain", text(shortname), REGIONS);
+    }
+
+    /**
+     * Get region data by name and shortname.
+     * @param name full name of region
+     * @param shortname short name of region
+     * @return region
+     */
+    public Region getRegionByNameAndShortName(String name, String shortname) {
+        return get("/region/get_by_name_and_shortname", "application/json",
+                json(new Region(null, name, shortname)), Region.class);
+    }
+
+    private <T> T get(String path, String contentType, HttpRequest.BodyPublisher body, Class<T> type) {
+        return decode(send(path, contentType, body), bytes -> cborMapper.readValue(bytes, type));
+    }
+
+    private <T> T get(String path, String contentType, HttpRequest.BodyPublisher body, TypeReference<T> type) {
+        return decode(send(path, contentType, body), bytes -> cborMapper.readValue(bytes, type));
+    }
+
+    private HttpResponse<byte[]> send(String path, String contentType, HttpRequest.BodyPublisher body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Accept", CBOR)
+                .method("GET", body);
+        if (contentType != null) {
+            request.header("Content-Type", contentType);
+        }
+        try {
+            return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Request to " + path + " was interrupted", e);
+        }
+    }
+
+    private <T> T decode(HttpResponse<byte[]> response, Decoder<T> decoder) {
+        if (response.statusCode() != 200) {
+            throw new ResponseException(new String(response.body(), StandardCharsets.UTF_8));
+        }
+        try {
+            return decoder.decode(response.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest.BodyPublisher json(Object value) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(jsonMapper.writeValueAsBytes(value));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static HttpRequest.BodyPublisher text(String value) {
+        return HttpRequest.BodyPublishers.ofString(value, StandardCharsets.UTF_8);
+    }
+
+    private interface Decoder<T> {
+        T decode(byte[] bytes) throws IOException;
+    }
+}
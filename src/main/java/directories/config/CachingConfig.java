@@ -1,31 +1,52 @@
 package directories.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCache;
-import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * Configuration for caching.
+ * Caches are bounded by size (W-TinyLFU admission and eviction) and by time to live, statistics are recorded.
  */
 
 @Configuration
 @EnableCaching
 public class CachingConfig {
 
+    public static final String FIND_BY_ID = "findById";
+    public static final String FIND_ALL_REGIONS = "findAllRegions";
+    public static final String FIND_BY_NAME = "findByName";
+    public static final String FIND_BY_SHORT_NAME = "findByShortName";
+    public static final String FIND_BY_NAME_AND_SHORT_NAME = "findByNameAndShortName";
+    public static final String FIND_BY_NAME_KEY = "findByNameKey";
+    public static final String FIND_BY_SHORT_NAME_KEY = "findByShortNameKey";
+    public static final String FIND_BY_NAME_AND_SHORT_NAME_KEY = "findByNameAndShortNameKey";
+
+    public static final List<String> CACHE_NAMES = List.of(
+            FIND_BY_ID, FIND_ALL_REGIONS, FIND_BY_NAME, FIND_BY_SHORT_NAME, FIND_BY_NAME_AND_SHORT_NAME,
+            FIND_BY_NAME_KEY, FIND_BY_SHORT_NAME_KEY, FIND_BY_NAME_AND_SHORT_NAME_KEY);
+
+    @Value("${directories.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${directories.cache.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
     @Bean
     public CacheManager cacheManager() {
-        SimpleCacheManager cacheManager = new SimpleCacheManager();
-        cacheManager.setCaches(Arrays.asList(
-                new ConcurrentMapCache("findById"),
-                new ConcurrentMapCache("findAllRegions"),
-                new ConcurrentMapCache("findByName"),
-                new ConcurrentMapCache("findByShortName"),
-                new ConcurrentMapCache("findByNameAndShortName")));
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats());
+        cacheManager.setCacheNames(CACHE_NAMES);
         return cacheManager;
     }
 }
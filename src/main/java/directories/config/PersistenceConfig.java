@@ -1,31 +1,135 @@
 package directories.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import directories.metrics.MapperMetricsInterceptor;
+import directories.storage.RegionKeyBackfill;
+import directories.storage.RegionSnapshotFile;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
 import org.mybatis.spring.annotation.MapperScan;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
-import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 
 import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration for persistence.
+ * Database is H2 behind a connection pool, kept in memory or in a file depending on
+ * @code{directories.persistence.mode}. When snapshot file is enabled, an empty database is filled
+ * from it before any other bean reads the directory. Rows without normalized keys get them before use.
+ */
 
 @Configuration
-@MapperScan("directories")
+@MapperScan(value = "directories.mapper", sqlSessionTemplateRef = "sqlSessionTemplate")
 public class PersistenceConfig {
 
+    private static final String MEMORY_MODE = "memory";
+    private static final String FILE_MODE = "file";
+
+    @Autowired
+    ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${directories.persistence.mode:memory}")
+    private String mode;
+
+    @Value("${directories.persistence.file:./data/regions}")
+    private String file;
+
+    @Value("${directories.persistence.cache-size-kb:65536}")
+    private int cacheSizeKb;
+
+    @Value("${directories.persistence.write-delay:500ms}")
+    private Duration writeDelay;
+
+    @Value("${directories.persistence.auto-server:false}")
+    private boolean autoServer;
+
+    @Value("${directories.persistence.statement-cache-size:64}")
+    private int statementCacheSize;
+
+    @Value("${directories.persistence.pool.minimum-idle:2}")
+    private int minimumIdle;
+
+    @Value("${directories.persistence.pool.maximum-size:10}")
+    private int maximumPoolSize;
+
+    @Value("${directories.persistence.pool.validation-timeout:1s}")
+    private Duration validationTimeout;
+
+    @Value("${directories.snapshot-file.enabled:false}")
+    private boolean snapshotFileEnabled;
+
+    @Value("${directories.snapshot-file.path:./data/regions.snapshot}")
+    private Path snapshotFile;
+
     @Bean
     public DataSource dataSource() {
-        return new EmbeddedDatabaseBuilder()
-                .setType(EmbeddedDatabaseType.H2)
-                .addScript("schema.sql")
-                .build();
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("regions");
+        config.setJdbcUrl(jdbcUrl());
+        config.setUsername("sa");
+        config.setMinimumIdle(minimumIdle);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setValidationTimeout(validationTimeout.toMillis());
+        HikariDataSource dataSource = new HikariDataSource(config);
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource("schema.sql")), dataSource);
+        if (snapshotFileEnabled) {
+            RegionSnapshotFile.restore(dataSource, snapshotFile);
+        }
+        RegionKeyBackfill.fill(dataSource);
+        return dataSource;
     }
 
     @Bean
     public SqlSessionFactory sqlSessionFactory() throws Exception {
         SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
         factoryBean.setDataSource(dataSource());
+        factoryBean.setPlugins(new MapperMetricsInterceptor(meterRegistry));
         return factoryBean.getObject();
     }
+
+    @Bean
+    public SqlSessionTemplate sqlSessionTemplate() throws Exception {
+        return new SqlSessionTemplate(sqlSessionFactory());
+    }
+
+    /**
+     * Session template for bulk writes, statements are sent to database as JDBC batch on flush.
+     */
+    @Bean
+    public SqlSessionTemplate batchSqlSessionTemplate() throws Exception {
+        return new SqlSessionTemplate(sqlSessionFactory(), ExecutorType.BATCH);
+    }
+
+    /**
+     * Builds H2 URL for configured mode. Statement cache is H2 per-connection cache of parsed statements,
+     * cache size, write delay and auto server apply to the file store only. Auto server lets several
+     * processes on one machine share the file. Database is closed with the pool rather
+     * than by H2 shutdown hook, so beans can still use it while the context is closing.
+     */
+    private String jdbcUrl() {
+        String settings = ";QUERY_CACHE_SIZE=" + statementCacheSize + ";DB_CLOSE_ON_EXIT=FALSE";
+        if (MEMORY_MODE.equals(mode)) {
+            return "jdbc:h2:mem:regions;DB_CLOSE_DELAY=-1" + settings;
+        }
+        if (FILE_MODE.equals(mode)) {
+            return "jdbc:h2:file:" + file + settings
+                    + ";CACHE_SIZE=" + cacheSizeKb
+                    + ";WRITE_DELAY=" + writeDelay.toMillis()
+                    + (autoServer ? ";AUTO_SERVER=TRUE" : "");
+        }
+        throw new IllegalStateException("Unknown persistence mode " + mode + ", expected memory or file");
+    }
 }
@@ -0,0 +1,46 @@
+package directories.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import directories.config.CachingConfig;
+import directories.model.CacheStatistics;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cache REST controller
+ */
+
+@RestController
+@RequestMapping("/cache")
+@Api(value = "CacheController")
+public class CacheController {
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @GetMapping(path = "/stats", produces = "application/json")
+    @ApiOperation("Get hit, miss and eviction statistics of region caches")
+    public List<CacheStatistics> getStatistics() {
+        List<CacheStatistics> statistics = new ArrayList<>();
+        for (String name : CachingConfig.CACHE_NAMES) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache) {
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = ((CaffeineCache) cache).getNativeCache();
+                CacheStats stats = nativeCache.stats();
+                statistics.add(new CacheStatistics(name, nativeCache.estimatedSize(), stats.hitCount(),
+                        stats.missCount(), stats.hitRate(), stats.evictionCount()));
+            }
+        }
+        return statistics;
+    }
+}
@@ -1,15 +1,45 @@
 package directories.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import directories.cache.RegionPayloadCache;
+import directories.event.DirectoryVersion;
+import directories.event.RegionChangeLog;
 import directories.exception.ResponseException;
+import directories.model.LookupMode;
 import directories.model.Region;
+import directories.model.RegionBatchItem;
+import directories.model.RegionChangeFeed;
+import directories.model.RegionFormat;
+import directories.model.RegionImportSummary;
+import directories.model.RegionLookup;
 import directories.model.Update;
 import directories.service.RegionService;
+import directories.service.RegionTransferService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Region REST controller
@@ -23,47 +53,218 @@ public class RegionController {
     @Autowired
     RegionService regionService;
 
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    DirectoryVersion directoryVersion;
+
+    @Autowired
+    RegionChangeLog changeLog;
+
+    @Autowired
+    ObjectProvider<RegionPayloadCache> payloadCache;
+
+    @Autowired
+    RegionTransferService transferService;
+
+    private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+
     private static final String EMPTY_ID = "ID can't be zero";
+    private static final String EMPTY_RESPONSE = "Directory is empty";
+    private static final long MAX_WAIT = 30000;
 
-    @GetMapping(path = "/get", produces = "application/json")
+    @GetMapping(path = "/get", produces = {"application/json", MediaType.APPLICATION_CBOR_VALUE})
     @ApiOperation("Get region's data by id")
-    public Region getRegion(@RequestBody Long id) {
+    public Region getRegion(@RequestBody Long id, WebRequest request, HttpServletResponse response) {
         if (id!=null){
+            if (request.checkNotModified(negotiated(directoryVersion.etag(id), request, response))){
+                return null;
+            }
             return regionService.findRegion(id);
         }
         else throw new ResponseException(EMPTY_ID);
     }
 
-    @GetMapping(path = "/get_all", produces = "application/json")
-    @ApiOperation("Get all region's data")
-    public List<Region> getRegions() {
-        return regionService.findAllRegions();
+    @GetMapping(path = "/get_many", produces = {"application/json", MediaType.APPLICATION_CBOR_VALUE})
+    @ApiOperation("Get data of several regions by list of ids, in request order")
+    public List<RegionLookup> getManyRegions(@RequestBody List<Long> ids, HttpServletResponse response) {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return regionService.findRegions(ids);
     }
 
-    @GetMapping(path = "/get_by_name", produces = "application/json")
-    @ApiOperation("Get region's data by name")
-    public List<Region> getRegionByName(@RequestBody String name){
+    @GetMapping(path = "/get_all", produces = "application/json", params = {"!afterId", "!limit"})
+    @ApiOperation("Get all region's data as prepared JSON, streamed for the offheap engine, gzip-compressed when the client accepts it")
+    public ResponseEntity<byte[]> getRegionsPayload(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                                            String acceptEncoding,
+                                                    WebRequest request,
+                                                    HttpServletResponse servletResponse) throws IOException {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        servletResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        servletResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (request.checkNotModified(gzip ? variant(directoryVersion.etag(), "gz") : directoryVersion.etag())){
+            return null;
+        }
+        RegionPayloadCache cache = payloadCache.getIfAvailable();
+        if (cache == null){
+            writeRegions(objectMapper, MediaType.APPLICATION_JSON, gzip, servletResponse);
+            return null;
+        }
+        RegionPayloadCache.Payload payload = cache.get();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip){
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.getGzip());
+        }
+        return response.body(payload.getJson());
+    }
+
+    @GetMapping(path = "/get_all", produces = {"application/json", MediaType.APPLICATION_CBOR_VALUE})
+    @ApiOperation("Get all region's data, or a page of it ordered by id when afterId or limit is given")
+    public List<Region> getRegions(@RequestParam(required = false) Long afterId,
+                                   @RequestParam(required = false) Integer limit,
+                                   WebRequest request, HttpServletResponse response) throws IOException {
+        if (request.checkNotModified(negotiated(directoryVersion.etag(), request, response))){
+            return null;
+        }
+        if (afterId == null && limit == null){
+            if (payloadCache.getIfAvailable() == null){
+                // offheap engine: the directory is not loaded on the heap, nor kept in the findAllRegions cache
+                if (acceptsCbor(request.getHeader(HttpHeaders.ACCEPT))){
+                    writeRegions(cborMapper, MediaType.APPLICATION_CBOR, false, response);
+                }
+                else writeRegions(objectMapper, MediaType.APPLICATION_JSON, false, response);
+                return null;
+            }
+            return regionService.findAllRegions();
+        }
+        return regionService.findRegionsPage(afterId, limit);
+    }
+
+    @GetMapping(path = "/get_all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ApiOperation("Stream all region's data ordered by id as newline-delimited JSON")
+    public StreamingResponseBody streamRegions(@RequestParam(required = false) Long afterId,
+                                               HttpServletResponse servletResponse) {
+        servletResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        ObjectWriter writer = objectMapper.writerFor(Region.class);
+        return response -> {
+            OutputStream out = new BufferedOutputStream(response);
+            regionService.streamRegions(afterId, region -> {
+                try {
+                    out.write(writer.writeValueAsBytes(region));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+    }
+
+    @GetMapping(path = "/get_by_name", produces = {"application/json", MediaType.APPLICATION_CBOR_VALUE})
+    @ApiOperation("Get region's data by name, mode exact or normalized (ignoring case, whitespace and Unicode form)")
+    public List<Region> getRegionByName(@RequestBody String name, @RequestParam(defaultValue = "exact") String mode,
+                                        WebRequest request, HttpServletResponse response){
+        LookupMode lookupMode = LookupMode.of(mode);
+        if (request.checkNotModified(negotiated(directoryVersion.etag(), request, response))){
+            return null;
+        }
+        if (lookupMode == LookupMode.NORMALIZED){
+            return regionService.findByNameNormalized(name);
+        }
         return regionService.findByName(name);
     }
 
-    @GetMapping(path = "/get_by_shortname", produces = "application/json")
-    @ApiOperation("Get region's data by shortname")
-    public List<Region> getRegionByShortname(@RequestBody String shortname){
+    @GetMapping(path = "/get_by_shortname", produces = {"application/json", MediaType.APPLICATION_CBOR_VALUE})
+    @ApiOperation("Get region's data by shortname, mode exact or normalized (ignoring case, whitespace and Unicode form)")
+    public List<Region> getRegionByShortname(@RequestBody String shortname,
+                                             @RequestParam(defaultValue = "exact") String mode, WebRequest request,
+                                             HttpServletResponse response){
+        LookupMode lookupMode = LookupMode.of(mode);
+        if (request.checkNotModified(negotiated(directoryVersion.etag(), request, response))){
+            return null;
+        }
+        if (lookupMode == LookupMode.NORMALIZED){
+            return regionService.findByShortNameNormalized(shortname);
+        }
         return regionService.findByShortName(shortname);
     }
 
-    @GetMapping(path = "/get_by_name_and_shortname", produces = "application/json")
-    @ApiOperation("Get region's data by shortname and name")
-    public Region getRegionByNameAndShortName(@RequestBody Region region){
+    @GetMapping(path = "/get_by_name_and_shortname", produces = {"application/json", MediaType.APPLICATION_CBOR_VALUE})
+    @ApiOperation("Get region's data by shortname and name, mode exact or normalized")
+    public Region getRegionByNameAndShortName(@RequestBody Region region,
+                                              @RequestParam(defaultValue = "exact") String mode, WebRequest request,
+                                              HttpServletResponse response){
+        LookupMode lookupMode = LookupMode.of(mode);
+        if (request.checkNotModified(negotiated(directoryVersion.etag(), request, response))){
+            return null;
+        }
+        if (lookupMode == LookupMode.NORMALIZED){
+            return regionService.findByNameAndShortNameNormalized(region.getName(), region.getShortName());
+        }
         return regionService.findByNameAndShortName(region.getName(), region.getShortName());
     }
 
+    @GetMapping(path = "/suggest", produces = "application/json")
+    @ApiOperation("Get regions whose name or shortname starts with prefix, ignoring case")
+    public List<Region> suggestRegions(@RequestParam(required = false) String prefix,
+                                       @RequestParam(defaultValue = "10") Integer limit) {
+        return regionService.suggest(prefix, limit);
+    }
+
+    @GetMapping(path = "/changes", produces = "application/json")
+    @ApiOperation("Get changes of directory after sequence 'since'. Consumer starts without 'since', "
+            + "loads get_all and then polls from returned lastSequence. 'wait' holds request up to given "
+            + "milliseconds until a change appears. Response with resync=true means changes are lost "
+            + "and consumer has to start again.")
+    public DeferredResult<RegionChangeFeed> getChanges(@RequestParam(required = false) Long since,
+                                                       @RequestParam(required = false) String epoch,
+                                                       @RequestParam(defaultValue = "1000") int limit,
+                                                       @RequestParam(defaultValue = "0") long wait) {
+        long timeout = Math.min(Math.max(wait, 0), MAX_WAIT);
+        DeferredResult<RegionChangeFeed> result = new DeferredResult<>(timeout > 0 ? timeout : null);
+        Runnable reply = () -> result.setResult(changeLog.read(epoch, since, limit));
+        if (since == null || timeout == 0){
+            reply.run();
+            return result;
+        }
+        result.onTimeout(() -> {
+            changeLog.cancel(reply);
+            reply.run();
+        });
+        changeLog.await(since, reply);
+        return result;
+    }
+
+    @PostMapping(path = "/import", produces = "application/json")
+    @ApiOperation("Import regions from CSV (name,shortName or id,name,shortName) or NDJSON body, ids are not kept")
+    public RegionImportSummary importRegions(@RequestParam(defaultValue = "csv") String format, InputStream body) {
+        return transferService.importRegions(body, RegionFormat.of(format));
+    }
+
+    @GetMapping(path = "/export")
+    @ApiOperation("Export all regions ordered by id as CSV or NDJSON file")
+    public ResponseEntity<StreamingResponseBody> exportRegions(@RequestParam(defaultValue = "csv") String format) {
+        RegionFormat regionFormat = RegionFormat.of(format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(regionFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=regions."
+                        + regionFormat.name().toLowerCase(Locale.ROOT))
+                .body(response -> transferService.exportRegions(response, regionFormat));
+    }
+
     @PostMapping(path = "/add", produces = "application/json")
     @ApiOperation("Add region in database")
     public Region addRegion(@RequestBody Region region) {
         return regionService.add(region);
     }
 
+    @PostMapping(path = "/add_batch", produces = "application/json")
+    @ApiOperation("Add list of regions in database")
+    public List<RegionBatchItem> addRegions(@RequestBody List<Region> regions) {
+        return regionService.addBatch(regions);
+    }
+
     @PutMapping(path = "/update", produces = "application/json")
     @ApiOperation("Update region's data in database")
     public Region updateRegion(@RequestBody Region region){
@@ -117,4 +318,94 @@ public class RegionController {
     public String deleteRegionByShortName(@RequestBody Region region){
         return regionService.deleteRegionByNameAndShortName(region.getName(), region.getShortName());
     }
+
+    /**
+     * Writes all regions as a JSON or CBOR array read from the read engine one by one, for read engines
+     * too large for a prepared body.
+     */
+    private void writeRegions(ObjectMapper mapper, MediaType type, boolean gzip, HttpServletResponse response)
+            throws IOException {
+        if (regionService.findRegionsPage(null, 1).isEmpty()){
+            throw new ResponseException(EMPTY_RESPONSE);
+        }
+        response.setContentType(type.toString());
+        OutputStream out = response.getOutputStream();
+        if (gzip){
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            out = new GZIPOutputStream(out, 8192);
+        }
+        try (SequenceWriter regions = mapper.writerFor(Region.class).writeValuesAsArray(out)) {
+            regionService.streamRegions(null, region -> {
+                try {
+                    regions.write(region);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Marks response as depending on Accept and tags its representation: CBOR and JSON bodies are
+     * different entities, each with its own strong ETag.
+     * @param etag ETag of the JSON representation
+     * @return ETag of the representation negotiated for request
+     */
+    private static String negotiated(String etag, WebRequest request, HttpServletResponse response) {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return acceptsCbor(request.getHeader(HttpHeaders.ACCEPT)) ? variant(etag, "cbor") : etag;
+    }
+
+    /**
+     * Negotiates like Spring MVC for endpoints producing JSON first and CBOR second: the most specific,
+     * highest quality acceptable type wins, wildcards select JSON.
+     */
+    private static boolean acceptsCbor(String accept) {
+        if (accept == null){
+            return false;
+        }
+        List<MediaType> types;
+        try {
+            types = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        MediaType.sortBySpecificityAndQuality(types);
+        for (MediaType type : types) {
+            if (type.getQualityValue() == 0){
+                continue;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)){
+                return false;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_CBOR)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tags a representation other than the plain one, for example the gzip-encoded body, which is a
+     * different entity with its own strong ETag.
+     * @param etag ETag of the plain representation
+     * @param suffix name of the representation
+     * @return ETag with suffix inserted before the closing quote
+     */
+    private static String variant(String etag, String suffix) {
+        return etag.substring(0, etag.length() - 1) + "-" + suffix + "\"";
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null){
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")){
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
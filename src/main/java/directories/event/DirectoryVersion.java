@@ -0,0 +1,103 @@
+package directories.event;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import directories.model.Region;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of the directory and of its rows, used as ETag of read responses.
+ * Tags carry the start time of the application and the number of resyncs, so they never match tags
+ * issued before a restart or a resync. Versions of a bounded number of rows are kept; a row evicted
+ * or deleted from them gets the newest version forgotten so far, which may change its tag without
+ * a change of the row, but never repeats a tag issued before its last change.
+ */
+@Component
+public class DirectoryVersion {
+
+    private final String start = Long.toString(System.currentTimeMillis(), 36);
+    private volatile String epoch = start;
+    private int resyncs;
+    private final Cache<Long, Long> rowVersions;
+    private final AtomicLong forgottenVersion = new AtomicLong();
+    private volatile long version;
+
+    public DirectoryVersion(@Value("${directories.etag.row-versions:100000}") long rowVersionsSize) {
+        this.rowVersions = Caffeine.newBuilder()
+                .maximumSize(rowVersionsSize)
+                .executor(Runnable::run)
+                .evictionListener((Long id, Long rowVersion, RemovalCause cause) -> forget(rowVersion))
+                .build();
+    }
+
+    /**
+     * @return start time of the application and number of resyncs, versions of different epochs are not comparable
+     */
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * @return current version of the directory
+     */
+    public long get() {
+        return version;
+    }
+
+    /**
+     * @return ETag of the whole directory
+     */
+    public String etag() {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+
+    /**
+     * @param id index of region
+     * @return ETag of one region, changes only when this region changes
+     */
+    public String etag(Long id) {
+        Long rowVersion = rowVersions.getIfPresent(id);
+        return "\"" + epoch + "-" + id + "-" + (rowVersion != null ? rowVersion : forgottenVersion.get()) + "\"";
+    }
+
+    /**
+     * @return number of rows whose version is kept
+     */
+    long rowVersionsSize() {
+        rowVersions.cleanUp();
+        return rowVersions.estimatedSize();
+    }
+
+    void advance(RegionChangeEvent event) {
+        Set<Long> kept = new HashSet<>();
+        for (Region region : event.getAfter()) {
+            kept.add(region.getId());
+            rowVersions.put(region.getId(), event.getVersion());
+        }
+        for (Region region : event.getBefore()) {
+            if (!kept.contains(region.getId())) {
+                // deleted: tags of forgotten rows move past the deletion before the row is dropped
+                forget(event.getVersion());
+                rowVersions.invalidate(region.getId());
+            }
+        }
+        version = event.getVersion();
+    }
+
+    void resync(RegionResyncEvent event) {
+        rowVersions.invalidateAll();
+        forgottenVersion.set(0);
+        epoch = start + "." + (++resyncs);
+        version = event.getVersion();
+    }
+
+    private void forget(long rowVersion) {
+        forgottenVersion.accumulateAndGet(rowVersion, Math::max);
+    }
+}
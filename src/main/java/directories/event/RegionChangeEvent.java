@@ -0,0 +1,74 @@
+package directories.event;
+
+import directories.model.Region;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Event published by @code{RegionService} after every successful change of the directory.
+ */
+public class RegionChangeEvent {
+    private final List<Region> before;
+    private final List<Region> after;
+    private final boolean remote;
+    private long version;
+
+    /**
+     * Creates event.
+     *
+     * @param before state of the affected regions before the change (empty for insert)
+     * @param after state of the affected regions after the change (empty for delete)
+     */
+    public RegionChangeEvent(List<Region> before, List<Region> after) {
+        this(before, after, false);
+    }
+
+    /**
+     * Creates event.
+     *
+     * @param before state of the affected regions before the change (empty for insert)
+     * @param after state of the affected regions after the change (empty for delete)
+     * @param remote true when the change was made by another node and is only applied here
+     */
+    public RegionChangeEvent(List<Region> before, List<Region> after, boolean remote) {
+        this.before = Collections.unmodifiableList(before);
+        this.after = Collections.unmodifiableList(after);
+        this.remote = remote;
+    }
+
+    public static RegionChangeEvent inserted(Region region) {
+        return new RegionChangeEvent(List.of(), List.of(region));
+    }
+
+    public static RegionChangeEvent updated(Region before, Region after) {
+        return new RegionChangeEvent(List.of(before), List.of(after));
+    }
+
+    public static RegionChangeEvent deleted(List<Region> regions) {
+        return new RegionChangeEvent(regions, List.of());
+    }
+
+    public List<Region> getBefore() {
+        return before;
+    }
+
+    public List<Region> getAfter() {
+        return after;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+
+    /**
+     * @return directory version created by this change, assigned by @code{RegionChangePublisher}
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    void setVersion(long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,147 @@
+package directories.event;
+
+import directories.model.Region;
+import directories.model.RegionChange;
+import directories.model.RegionChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bounded in-memory log of directory changes for replication.
+ * Sequence of a change is the directory version created by it, one version may hold several changes.
+ * Consumers that ask for changes older than the log keeps are told to resynchronize.
+ */
+@Component
+public class RegionChangeLog {
+
+    @Value("${directories.changes.capacity:10000}")
+    private int capacity;
+
+    @Autowired
+    DirectoryVersion directoryVersion;
+
+    private final Deque<RegionChange> changes = new ArrayDeque<>();
+    private final List<Runnable> waiters = new ArrayList<>();
+    private long lastVersion;
+    private long truncatedVersion;
+
+    /**
+     * Records upserts for the new state of regions and tombstones for deleted ones.
+     *
+     * @param event changed regions
+     */
+    @EventListener
+    public void onRegionChange(RegionChangeEvent event) {
+        List<Runnable> ready;
+        synchronized (this) {
+            Set<Long> upserted = new HashSet<>();
+            for (Region region : event.getAfter()) {
+                upserted.add(region.getId());
+                append(new RegionChange(event.getVersion(), RegionChange.Type.UPSERT, region));
+            }
+            for (Region region : event.getBefore()) {
+                if (!upserted.contains(region.getId())) {
+                    append(new RegionChange(event.getVersion(), RegionChange.Type.DELETE, region));
+                }
+            }
+            lastVersion = event.getVersion();
+            ready = new ArrayList<>(waiters);
+            waiters.clear();
+        }
+        ready.forEach(Runnable::run);
+    }
+
+    /**
+     * Forgets all changes, consumers have to start again.
+     *
+     * @param event resync
+     */
+    @EventListener
+    public void onResync(RegionResyncEvent event) {
+        List<Runnable> ready;
+        synchronized (this) {
+            changes.clear();
+            lastVersion = event.getVersion();
+            truncatedVersion = event.getVersion();
+            ready = new ArrayList<>(waiters);
+            waiters.clear();
+        }
+        ready.forEach(Runnable::run);
+    }
+
+    /**
+     * Reads changes after given sequence. Whole versions are returned, so the limit may be exceeded
+     * by changes of the last returned version.
+     *
+     * @param epoch epoch of previous response, null to skip the check
+     * @param since last sequence consumer has applied, null when consumer starts
+     * @param limit maximal number of changes
+     * @return changes, or resync request when they are no longer available
+     */
+    public synchronized RegionChangeFeed read(String epoch, Long since, int limit) {
+        if (since == null || since < truncatedVersion || since > lastVersion
+                || (epoch != null && !epoch.equals(directoryVersion.getEpoch()))) {
+            return new RegionChangeFeed(directoryVersion.getEpoch(), lastVersion, true, List.of());
+        }
+        List<RegionChange> newer = new ArrayList<>();
+        Iterator<RegionChange> iterator = changes.descendingIterator();
+        while (iterator.hasNext()) {
+            RegionChange change = iterator.next();
+            if (change.getSequence() <= since) {
+                break;
+            }
+            newer.add(change);
+        }
+        Collections.reverse(newer);
+        int end = Math.min(Math.max(limit, 1), newer.size());
+        while (end < newer.size() && newer.get(end).getSequence() == newer.get(end - 1).getSequence()) {
+            end++;
+        }
+        List<RegionChange> page = newer.subList(0, end);
+        long lastSequence = page.isEmpty() ? since : page.get(page.size() - 1).getSequence();
+        return new RegionChangeFeed(directoryVersion.getEpoch(), lastSequence, false, new ArrayList<>(page));
+    }
+
+    /**
+     * Runs listener once there are changes after given sequence, immediately if they already exist.
+     *
+     * @param since last sequence consumer has applied
+     * @param listener callback
+     */
+    public void await(long since, Runnable listener) {
+        synchronized (this) {
+            if (since >= lastVersion) {
+                waiters.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    /**
+     * Forgets listener registered by @code{await}.
+     *
+     * @param listener callback
+     */
+    public synchronized void cancel(Runnable listener) {
+        waiters.remove(listener);
+    }
+
+    private void append(RegionChange change) {
+        changes.addLast(change);
+        while (changes.size() > capacity) {
+            truncatedVersion = changes.removeFirst().getSequence();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package directories.event;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes changes of the directory one at a time.
+ * Every change gets the next directory version, which becomes visible only after all listeners
+ * have applied the change, so a version is never paired with stale cached data.
+ */
+@Component
+public class RegionChangePublisher {
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    DirectoryVersion directoryVersion;
+
+    /**
+     * Publishes committed change.
+     *
+     * @param event changed regions
+     */
+    public synchronized void publish(RegionChangeEvent event) {
+        event.setVersion(directoryVersion.get() + 1);
+        eventPublisher.publishEvent(event);
+        directoryVersion.advance(event);
+    }
+
+    /**
+     * Publishes resync. Afterwards the directory has a new epoch, so every issued ETag and change
+     * sequence is rejected by the next request.
+     */
+    public synchronized void publishResync() {
+        RegionResyncEvent event = new RegionResyncEvent(directoryVersion.get() + 1);
+        eventPublisher.publishEvent(event);
+        directoryVersion.resync(event);
+    }
+}
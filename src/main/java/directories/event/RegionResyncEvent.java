@@ -0,0 +1,20 @@
+package directories.event;
+
+/**
+ * Event published when local state may have missed changes of the directory, for example after lost
+ * invalidation messages. Listeners drop or reload everything derived from the database.
+ */
+public class RegionResyncEvent {
+    private final long version;
+
+    RegionResyncEvent(long version) {
+        this.version = version;
+    }
+
+    /**
+     * @return directory version created by the resync
+     */
+    public long getVersion() {
+        return version;
+    }
+}
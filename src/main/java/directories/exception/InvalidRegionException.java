@@ -0,0 +1,16 @@
+package directories.exception;
+
+/**
+ * Region data can't be stored, the request has to be corrected.
+ */
+public class InvalidRegionException extends ResponseException {
+
+    /**
+     * Creates exception.
+     *
+     * @param message of exception
+     */
+    public InvalidRegionException(String message) {
+        super(message, false);
+    }
+}
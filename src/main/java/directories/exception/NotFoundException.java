@@ -0,0 +1,17 @@
+package directories.exception;
+
+/**
+ * Lookup found no region. Not found is an expected answer, so the exception has no stack trace
+ * and is cheap to create and to cache.
+ */
+public class NotFoundException extends ResponseException {
+
+    /**
+     * Creates exception.
+     *
+     * @param message of exception
+     */
+    public NotFoundException(String message) {
+        super(message, false);
+    }
+}
@@ -3,11 +3,14 @@ package directories.exception;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * This @code{AdapterExceptionHandler} class handles exceptions.
  */
@@ -17,6 +20,7 @@ public class RegionExceptionHandler {
 
     private static final Logger LOGGER = LogManager.getLogger(RegionExceptionHandler.class);
     private static final String EMPTY_ID = "ID can't be zero and must be Long";
+    private static final MediaType TEXT_PLAIN_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
 
     /**
      * Handles response exception.
@@ -28,8 +32,35 @@ public class RegionExceptionHandler {
     public ResponseEntity<String> handleResponseException(Exception e) {
         LOGGER.error("Database response error", e);
 
-        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_GATEWAY);
+        return error(e.getMessage(), HttpStatus.BAD_GATEWAY);
     }
+
+    /**
+     * Handles missing region. It is an expected answer, so it is logged without stack trace.
+     *
+     * @param e - exception thrown.
+     * @return response entity with error code
+     */
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<String> handleNotFoundException(NotFoundException e) {
+        LOGGER.debug("Not found: " + e.getMessage());
+
+        return error(e.getMessage(), HttpStatus.BAD_GATEWAY);
+    }
+
+    /**
+     * Handles region data that can't be stored. The client has to correct it, so it is logged without stack trace.
+     *
+     * @param e - exception thrown.
+     * @return response entity with error code
+     */
+    @ExceptionHandler(InvalidRegionException.class)
+    public ResponseEntity<String> handleInvalidRegionException(InvalidRegionException e) {
+        LOGGER.debug("Invalid region: " + e.getMessage());
+
+        return error(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Handles request exception.
      *
@@ -40,7 +71,14 @@ public class RegionExceptionHandler {
     public ResponseEntity<String> handleMessageNotReadableException(Exception e) {
         LOGGER.error("Request error", e);
 
-        return new ResponseEntity<>(EMPTY_ID, HttpStatus.BAD_GATEWAY);
+        return error(EMPTY_ID, HttpStatus.BAD_GATEWAY);
     }
 
+    /**
+     * Error bodies are plain text whatever the request accepts, so they are labeled as such
+     * instead of with the negotiated type, e.g. CBOR.
+     */
+    private static ResponseEntity<String> error(String message, HttpStatus status) {
+        return ResponseEntity.status(status).contentType(TEXT_PLAIN_UTF8).body(message);
+    }
 }
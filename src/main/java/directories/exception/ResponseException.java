@@ -13,4 +13,14 @@ public class ResponseException extends RuntimeException {
     public ResponseException(String message) {
         super(message);
     }
+
+    /**
+     * Creates exception without stack trace, for expected outcomes.
+     *
+     * @param message of exception
+     * @param writableStackTrace false to skip filling in the stack trace
+     */
+    protected ResponseException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,74 @@
+package directories.invalidation;
+
+import directories.model.Region;
+
+import java.util.List;
+
+/**
+ * Message of @code{RegionInvalidationBus}. Sequence numbers are consecutive per node, a heartbeat repeats
+ * the last sequence without regions, a resync message asks peers to drop everything.
+ */
+public class InvalidationMessage {
+
+    public enum Type {
+        CHANGE,
+        HEARTBEAT,
+        RESYNC
+    }
+
+    private String node;
+    private long sequence;
+    private Type type;
+    private List<Region> before;
+    private List<Region> after;
+
+    public InvalidationMessage() {}
+
+    public InvalidationMessage(String node, long sequence, Type type, List<Region> before, List<Region> after) {
+        this.node = node;
+        this.sequence = sequence;
+        this.type = type;
+        this.before = before;
+        this.after = after;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public void setNode(String node) {
+        this.node = node;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public List<Region> getBefore() {
+        return before;
+    }
+
+    public void setBefore(List<Region> before) {
+        this.before = before;
+    }
+
+    public List<Region> getAfter() {
+        return after;
+    }
+
+    public void setAfter(List<Region> after) {
+        this.after = after;
+    }
+}
@@ -0,0 +1,29 @@
+package directories.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Delivery of invalidation messages between nodes. Delivery may lose, duplicate or reorder messages,
+ * @code{RegionInvalidationBus} detects it by sequence numbers.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Sends message to all peers.
+     *
+     * @param message encoded message
+     */
+    void send(byte[] message);
+
+    /**
+     * Starts delivering messages of peers.
+     *
+     * @param receiver receiver of encoded messages, called from the transport's thread
+     */
+    void listen(Consumer<byte[]> receiver);
+
+    /**
+     * @return maximal size of a message in bytes
+     */
+    int maxMessageSize();
+}
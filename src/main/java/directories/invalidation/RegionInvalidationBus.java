@@ -0,0 +1,197 @@
+package directories.invalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import directories.event.RegionChangeEvent;
+import directories.event.RegionChangePublisher;
+import directories.mapper.RegionMapper;
+import directories.model.Region;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps nodes sharing one database consistent.
+ * Every local change is broadcast with the regions it affected. A peer reloads those regions from the
+ * database and publishes them as a remote change, so its caches, read engine, prefix index and change
+ * log are updated by the same listeners as for its own writes; remote changes are not broadcast again.
+ * Messages of a node carry consecutive sequence numbers and heartbeats repeat the last one, so a peer
+ * that notices a gap, including a lost last message, drops all local state through a resync.
+ * Messages are encoded and sent by one sender thread in the order of changes, never inside the
+ * publisher's lock, so a slow network doesn't hold up local writes.
+ */
+@Component
+@ConditionalOnProperty(name = "directories.invalidation.enabled", havingValue = "true")
+public class RegionInvalidationBus {
+
+    private static final Logger LOGGER = LogManager.getLogger(RegionInvalidationBus.class);
+
+    @Autowired
+    InvalidationTransport transport;
+
+    @Autowired
+    RegionMapper regionMapper;
+
+    @Autowired
+    RegionChangePublisher changePublisher;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${directories.invalidation.heartbeat-interval:1s}")
+    private Duration heartbeatInterval;
+
+    private final String node = UUID.randomUUID().toString();
+    private final Map<String, Long> peerSequences = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "region-invalidation-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // used by the sender thread only
+    private long sequence;
+
+    @PostConstruct
+    public void start() {
+        transport.listen(this::receive);
+        sender.scheduleAtFixedRate(this::sendHeartbeat, heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        LOGGER.info("invalidation bus started as node " + node);
+    }
+
+    /**
+     * Sends changes still queued and stops heartbeats.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        sender.shutdown();
+        if (!sender.awaitTermination(heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS)) {
+            LOGGER.warn("invalidation messages not sent before shutdown");
+        }
+    }
+
+    /**
+     * Queues broadcast of local change.
+     *
+     * @param event changed regions
+     */
+    @EventListener
+    public void onRegionChange(RegionChangeEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        sender.execute(() -> broadcast(event));
+    }
+
+    /**
+     * Broadcasts change under the next sequence. Changes too large for one message ask peers to resync.
+     */
+    private void broadcast(RegionChangeEvent event) {
+        sequence++;
+        byte[] message = encode(new InvalidationMessage(node, sequence, InvalidationMessage.Type.CHANGE,
+                event.getBefore(), event.getAfter()));
+        if (message.length > transport.maxMessageSize()) {
+            message = encode(new InvalidationMessage(node, sequence, InvalidationMessage.Type.RESYNC, null, null));
+        }
+        send(message);
+    }
+
+    private void sendHeartbeat() {
+        send(encode(new InvalidationMessage(node, sequence, InvalidationMessage.Type.HEARTBEAT, null, null)));
+    }
+
+    /**
+     * Sends message, a message lost here is detected by peers at the next message or heartbeat.
+     */
+    private void send(byte[] message) {
+        try {
+            transport.send(message);
+        } catch (RuntimeException e) {
+            LOGGER.warn("invalidation message not sent: " + e.getMessage());
+        }
+    }
+
+    private void receive(byte[] bytes) {
+        InvalidationMessage message;
+        try {
+            message = objectMapper.readValue(bytes, InvalidationMessage.class);
+        } catch (IOException e) {
+            LOGGER.warn("invalid invalidation message: " + e.getMessage());
+            return;
+        }
+        if (node.equals(message.getNode())) {
+            return;
+        }
+        Long last = peerSequences.get(message.getNode());
+        boolean heartbeat = message.getType() == InvalidationMessage.Type.HEARTBEAT;
+        long expected = heartbeat ? message.getSequence() : message.getSequence() - 1;
+        if (last != null && message.getSequence() <= last && !heartbeat) {
+            return;
+        }
+        peerSequences.put(message.getNode(), Math.max(message.getSequence(), last != null ? last : 0));
+        if (last != null && last < expected) {
+            LOGGER.warn("missed messages " + (last + 1) + ".." + expected + " of node " + message.getNode() + ", resync");
+            changePublisher.publishResync();
+            return;
+        }
+        if (last == null && heartbeat) {
+            // first contact, the node's earlier changes are already in the database we loaded from
+            return;
+        }
+        if (message.getType() == InvalidationMessage.Type.RESYNC) {
+            changePublisher.publishResync();
+        }
+        else if (message.getType() == InvalidationMessage.Type.CHANGE) {
+            try {
+                apply(message);
+            } catch (RuntimeException e) {
+                LOGGER.error("change " + message.getSequence() + " of node " + message.getNode() + " not applied, resync", e);
+                changePublisher.publishResync();
+            }
+        }
+    }
+
+    /**
+     * Reloads regions of a peer's change and publishes them locally. Current rows are taken rather than
+     * the peer's new data, so a message applied late never brings back older data.
+     */
+    private void apply(InvalidationMessage message) {
+        List<Region> before = message.getBefore() != null ? message.getBefore() : List.of();
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Region region : before) {
+            ids.add(region.getId());
+        }
+        if (message.getAfter() != null) {
+            for (Region region : message.getAfter()) {
+                ids.add(region.getId());
+            }
+        }
+        List<Region> after = ids.isEmpty() ? List.of() : regionMapper.findByIds(ids);
+        changePublisher.publish(new RegionChangeEvent(before, after, true));
+    }
+
+    private byte[] encode(InvalidationMessage message) {
+        try {
+            return objectMapper.writeValueAsBytes(message);
+        } catch (IOException e) {
+            throw new IllegalStateException("Invalidation message can't be encoded", e);
+        }
+    }
+}
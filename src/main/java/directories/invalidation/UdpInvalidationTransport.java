@@ -0,0 +1,94 @@
+package directories.invalidation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Transport sending every message as one UDP datagram to each configured peer.
+ * Peers are listed as host:port, so several nodes can run on one machine with different ports.
+ */
+@Component
+@ConditionalOnExpression("${directories.invalidation.enabled:false} and '${directories.invalidation.transport:udp}' == 'udp'")
+public class UdpInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger LOGGER = LogManager.getLogger(UdpInvalidationTransport.class);
+    private static final int MAX_DATAGRAM = 65000;
+
+    private final DatagramSocket socket;
+    private final List<InetSocketAddress> peers = new ArrayList<>();
+    private Thread listener;
+
+    public UdpInvalidationTransport(@Value("${directories.invalidation.udp.port:7600}") int port,
+                                    @Value("${directories.invalidation.udp.peers:}") String peers) throws SocketException {
+        this.socket = new DatagramSocket(port);
+        for (String peer : peers.split(",")) {
+            if (!peer.isBlank()) {
+                String[] address = peer.trim().split(":");
+                this.peers.add(new InetSocketAddress(address[0], Integer.parseInt(address[1])));
+            }
+        }
+        LOGGER.info("invalidation transport on UDP port " + socket.getLocalPort() + ", peers " + this.peers);
+    }
+
+    @Override
+    public void send(byte[] message) {
+        for (InetSocketAddress peer : peers) {
+            try {
+                socket.send(new DatagramPacket(message, message.length, peer));
+            } catch (IOException e) {
+                // peer detects the lost message by its sequence
+                LOGGER.warn("invalidation message to " + peer + " not sent: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void listen(Consumer<byte[]> receiver) {
+        if (listener != null) {
+            throw new IllegalStateException("Transport already has a receiver");
+        }
+        listener = new Thread(() -> {
+            byte[] buffer = new byte[MAX_DATAGRAM];
+            while (!socket.isClosed()) {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                try {
+                    socket.receive(packet);
+                    receiver.accept(Arrays.copyOfRange(packet.getData(), packet.getOffset(), packet.getOffset() + packet.getLength()));
+                } catch (IOException e) {
+                    // a message lost here is detected by its sequence, the socket keeps receiving
+                    if (!socket.isClosed()) {
+                        LOGGER.warn("invalidation message not received: " + e.getMessage());
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.error("invalidation message from " + packet.getSocketAddress() + " failed", e);
+                }
+            }
+        }, "region-invalidation-udp");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public int maxMessageSize() {
+        return MAX_DATAGRAM;
+    }
+
+    @PreDestroy
+    public void close() {
+        socket.close();
+    }
+}
@@ -2,6 +2,9 @@ package directories.mapper;
 
 import directories.model.Region;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -11,56 +14,156 @@ public interface RegionMapper {
     @Select("SELECT * FROM REGIONS WHERE id = #{id};")
     Region findById(@Param("id") Long id);
 
-    @Select("SELECT * FROM REGIONS;")
+    @Select({"<script>",
+            "SELECT * FROM REGIONS WHERE id IN ",
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>",
+            "#{id}",
+            "</foreach>;",
+            "</script>"})
+    List<Region> findByIds(@Param("ids") Collection<Long> ids);
+
+    @Select("SELECT * FROM REGIONS ORDER BY id;")
     List<Region> findAllRegions();
 
-    @Select("SELECT * FROM REGIONS WHERE name = #{name};")
+    @Select("SELECT * FROM REGIONS WHERE id > #{afterId} ORDER BY id LIMIT #{limit};")
+    List<Region> findRegionsAfter(@Param("afterId") Long afterId, @Param("limit") Integer limit);
+
+    @Select("SELECT * FROM REGIONS WHERE id > #{afterId} ORDER BY id;")
+    @Options(fetchSize = 1000)
+    Cursor<Region> streamRegionsAfter(@Param("afterId") Long afterId);
+
+    @Select("SELECT * FROM REGIONS WHERE name = #{name} ORDER BY id;")
     List<Region> findByName(@Param("name") String name);
 
-    @Select("SELECT * FROM REGIONS WHERE shortName = #{shortName};")
+    @Select("SELECT * FROM REGIONS WHERE shortName = #{shortName} ORDER BY id;")
     List<Region> findByShortName(@Param("shortName") String shortName);
 
     @Select("SELECT * FROM REGIONS WHERE name = #{name} AND shortName = #{shortName};")
     Region findByNameAndShortName(@Param("name") String name, @Param("shortName") String shortName);
 
-    @Insert("INSERT INTO REGIONS(name, shortName)\n" +
-            "VALUES (#{name}, #{shortName});")
-    Integer addRegion(@Param("name") String name, @Param("shortName") String shortName);
-
-    @Update("UPDATE REGIONS\n" +
-            "SET name=#{name}, shortName=#{shortName}" +
-            "WHERE id = #{id};")
-    void updateRegion(@Param("id") Long id, @Param("name") String name, @Param("shortName") String shortName);
-
-    @Update("UPDATE REGIONS\n" +
-            "SET shortName=#{shortName}" +
-            "WHERE id = #{id};")
-    void updateShortNameRegion(@Param("id") Long id, @Param("shortName") String shortName);
-
-    @Update("UPDATE REGIONS\n" +
-            "SET name=#{name}" +
-            "WHERE id = #{id};")
-    void updateNameRegion(@Param("id") Long id, @Param("name") String name);
-
-    @Update("UPDATE REGIONS\n" +
-            "SET name=#{nameNew}" +
-            "WHERE name = #{nameLast};")
-    void updateNameRegionByName( @Param("nameLast") String nameLast, @Param("nameNew") String nameNew);
-
-    @Update("UPDATE REGIONS\n" +
-            "SET shortName=#{shortNameNew}" +
-            "WHERE shortName = #{shortNameLast};")
-    void updateShortNameRegionByShortName(@Param("shortNameLast") String shortNameLast, @Param("shortNameNew") String shortNameNew);
-
-    @Delete("DELETE FROM REGIONS WHERE id = #{id};")
-    void deleteRegionById(@Param("id") Long id);
-
-    @Delete("DELETE FROM REGIONS WHERE name = #{name};")
-    void deleteRegionByName(@Param("name") String name);
-
-    @Delete("DELETE FROM REGIONS WHERE shortName = #{shortName};")
-    void deleteRegionByShortName(@Param("shortName") String shortName);
-
-    @Delete("DELETE FROM REGIONS WHERE name = #{name} AND shortName = #{shortName};")
-    void deleteRegionByNameAndShortName(@Param("name") String name, @Param("shortName") String shortName);
+    @Select({"<script>",
+            "<bind name='nameKey' value='@directories.model.RegionNames@key(name)'/>",
+            "SELECT * FROM REGIONS WHERE nameKey = #{nameKey} ORDER BY id;",
+            "</script>"})
+    List<Region> findByNameKey(@Param("name") String name);
+
+    @Select({"<script>",
+            "<bind name='shortNameKey' value='@directories.model.RegionNames@key(shortName)'/>",
+            "SELECT * FROM REGIONS WHERE shortNameKey = #{shortNameKey} ORDER BY id;",
+            "</script>"})
+    List<Region> findByShortNameKey(@Param("shortName") String shortName);
+
+    @Select({"<script>",
+            "<bind name='nameKey' value='@directories.model.RegionNames@key(name)'/>",
+            "<bind name='shortNameKey' value='@directories.model.RegionNames@key(shortName)'/>",
+            "SELECT * FROM REGIONS WHERE nameKey = #{nameKey} AND shortNameKey = #{shortNameKey} ORDER BY id LIMIT 1;",
+            "</script>"})
+    Region findByNameKeyAndShortNameKey(@Param("name") String name, @Param("shortName") String shortName);
+
+    /**
+     * Keys are computed by caller and passed as name and shortName of regions, bind can't be used inside foreach.
+     */
+    @Select({"<script>",
+            "SELECT * FROM REGIONS WHERE nameKey IN ",
+            "<foreach item='key' collection='keys' open='(' separator=',' close=')'>",
+            "#{key.name}",
+            "</foreach>",
+            "AND (nameKey, shortNameKey) IN ",
+            "<foreach item='key' collection='keys' open='(' separator=',' close=')'>",
+            "(#{key.name}, #{key.shortName})",
+            "</foreach>;",
+            "</script>"})
+    List<Region> findByKeys(@Param("keys") List<Region> keys);
+
+    /**
+     * Regions whose normalized name or short name matches pattern, ordered by matched key.
+     * A region matching by both is returned twice.
+     */
+    @Select({"SELECT id, name, shortName FROM (",
+            "SELECT id, name, shortName, nameKey AS term FROM REGIONS WHERE nameKey LIKE #{pattern} ESCAPE '\\'",
+            "UNION ALL",
+            "SELECT id, name, shortName, shortNameKey AS term FROM REGIONS WHERE shortNameKey LIKE #{pattern} ESCAPE '\\'",
+            ") ORDER BY term, id LIMIT #{limit};"})
+    List<Region> suggestByKey(@Param("pattern") String pattern, @Param("limit") int limit);
+
+    @Insert({"<script>",
+            "<bind name='nameKey' value='@directories.model.RegionNames@key(name)'/>",
+            "<bind name='shortNameKey' value='@directories.model.RegionNames@key(shortName)'/>",
+            "INSERT INTO REGIONS(name, shortName, nameKey, shortNameKey)",
+            "VALUES (#{name}, #{shortName}, #{nameKey}, #{shortNameKey});",
+            "</script>"})
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    void addRegion(Region region);
+
+    @Select({"<script>",
+            "<bind name='nameKey' value='@directories.model.RegionNames@key(name)'/>",
+            "<bind name='shortNameKey' value='@directories.model.RegionNames@key(shortName)'/>",
+            "SELECT * FROM OLD TABLE (UPDATE REGIONS",
+            "SET name=#{name}, shortName=#{shortName}, nameKey=#{nameKey}, shortNameKey=#{shortNameKey}",
+            "WHERE id = #{id} AND NOT (name = #{name} AND shortName = #{shortName}));",
+            "</script>"})
+    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    Region updateRegion(@Param("id") Long id, @Param("name") String name, @Param("shortName") String shortName);
+
+    @Select({"<script>",
+            "<bind name='shortNameKey' value='@directories.model.RegionNames@key(shortName)'/>",
+            "SELECT * FROM OLD TABLE (UPDATE REGIONS",
+            "SET shortName=#{shortName}, shortNameKey=#{shortNameKey}",
+            "WHERE id = #{id} AND shortName &lt;&gt; #{shortName});",
+            "</script>"})
+    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    Region updateShortNameRegion(@Param("id") Long id, @Param("shortName") String shortName);
+
+    @Select({"<script>",
+            "<bind name='nameKey' value='@directories.model.RegionNames@key(name)'/>",
+            "SELECT * FROM OLD TABLE (UPDATE REGIONS",
+            "SET name=#{name}, nameKey=#{nameKey}",
+            "WHERE id = #{id} AND name &lt;&gt; #{name});",
+            "</script>"})
+    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    Region updateNameRegion(@Param("id") Long id, @Param("name") String name);
+
+    @Update({"<script>",
+            "<bind name='nameKey' value='@directories.model.RegionNames@key(name)'/>",
+            "<bind name='shortNameKey' value='@directories.model.RegionNames@key(shortName)'/>",
+            "UPDATE REGIONS",
+            "SET name=#{name}, shortName=#{shortName}, nameKey=#{nameKey}, shortNameKey=#{shortNameKey}",
+            "WHERE id = #{id};",
+            "</script>"})
+    void setRegion(Region region);
+
+    @Select({"<script>",
+            "<bind name='nameKey' value='@directories.model.RegionNames@key(nameNew)'/>",
+            "SELECT * FROM OLD TABLE (UPDATE REGIONS",
+            "SET name=#{nameNew}, nameKey=#{nameKey}",
+            "WHERE name = #{nameLast} AND name &lt;&gt; #{nameNew}) ORDER BY id;",
+            "</script>"})
+    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    List<Region> updateNameRegionByName(@Param("nameLast") String nameLast, @Param("nameNew") String nameNew);
+
+    @Select({"<script>",
+            "<bind name='shortNameKey' value='@directories.model.RegionNames@key(shortNameNew)'/>",
+            "SELECT * FROM OLD TABLE (UPDATE REGIONS",
+            "SET shortName=#{shortNameNew}, shortNameKey=#{shortNameKey}",
+            "WHERE shortName = #{shortNameLast} AND shortName &lt;&gt; #{shortNameNew}) ORDER BY id;",
+            "</script>"})
+    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    List<Region> updateShortNameRegionByShortName(@Param("shortNameLast") String shortNameLast,
+                                                  @Param("shortNameNew") String shortNameNew);
+
+    @Select("SELECT * FROM OLD TABLE (DELETE FROM REGIONS WHERE id = #{id});")
+    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    Region deleteRegionById(@Param("id") Long id);
+
+    @Select("SELECT * FROM OLD TABLE (DELETE FROM REGIONS WHERE name = #{name});")
+    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    List<Region> deleteRegionByName(@Param("name") String name);
+
+    @Select("SELECT * FROM OLD TABLE (DELETE FROM REGIONS WHERE shortName = #{shortName});")
+    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    List<Region> deleteRegionByShortName(@Param("shortName") String shortName);
+
+    @Select("SELECT * FROM OLD TABLE (DELETE FROM REGIONS WHERE name = #{name} AND shortName = #{shortName});")
+    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    Region deleteRegionByNameAndShortName(@Param("name") String name, @Param("shortName") String shortName);
 }
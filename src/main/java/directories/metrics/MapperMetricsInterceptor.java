@@ -0,0 +1,71 @@
+package directories.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * MyBatis plugin timing every mapper statement as @code{region.mapper} timer
+ * tagged with statement and outcome.
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class})
+})
+public class MapperMetricsInterceptor implements Interceptor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private volatile MeterRegistry meterRegistry;
+
+    /**
+     * Creates plugin. Registry is resolved on first statement, it depends on the data source
+     * and cannot be created before the session factory.
+     *
+     * @param meterRegistryProvider provider of registry
+     */
+    public MapperMetricsInterceptor(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MeterRegistry meterRegistry = this.meterRegistry;
+        if (meterRegistry == null) {
+            meterRegistry = meterRegistryProvider.getObject();
+            this.meterRegistry = meterRegistry;
+        }
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "SUCCESS";
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            outcome = "ERROR";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("region.mapper")
+                    .description("Execution time of RegionMapper statements")
+                    .tag("statement", shortId(statement.getId()))
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String shortId(String id) {
+        int method = id.lastIndexOf('.');
+        int type = id.lastIndexOf('.', method - 1);
+        return id.substring(type + 1);
+    }
+}
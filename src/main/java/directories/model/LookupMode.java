@@ -0,0 +1,27 @@
+package directories.model;
+
+import directories.exception.ResponseException;
+
+import java.util.Locale;
+
+/**
+ * How lookups by name and shortName match: exactly or by normalized keys, see @code{RegionNames}.
+ */
+public enum LookupMode {
+    EXACT,
+    NORMALIZED;
+
+    private static final String WRONG_MODE = "Mode must be exact or normalized";
+
+    /**
+     * @param name name of mode, ignoring case
+     * @return mode
+     */
+    public static LookupMode of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new ResponseException(WRONG_MODE);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package directories.model;
+
+public class RegionBatchItem {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE
+    }
+
+    private Status status;
+    private Region region;
+
+    public RegionBatchItem() {}
+
+    public RegionBatchItem(Status status, Region region) {
+        this.status = status;
+        this.region = region;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Region getRegion() {
+        return region;
+    }
+
+    public void setRegion(Region region) {
+        this.region = region;
+    }
+}
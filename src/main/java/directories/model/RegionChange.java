@@ -0,0 +1,65 @@
+package directories.model;
+
+public class RegionChange {
+
+    public enum Type {
+        UPSERT,
+        DELETE
+    }
+
+    private long sequence;
+    private Type type;
+    private Long id;
+    private String name;
+    private String shortName;
+
+    public RegionChange() {}
+
+    public RegionChange(long sequence, Type type, Region region) {
+        this.sequence = sequence;
+        this.type = type;
+        this.id = region.getId();
+        this.name = region.getName();
+        this.shortName = region.getShortName();
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getShortName() {
+        return shortName;
+    }
+
+    public void setShortName(String shortName) {
+        this.shortName = shortName;
+    }
+}
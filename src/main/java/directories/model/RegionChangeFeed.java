@@ -0,0 +1,51 @@
+package directories.model;
+
+import java.util.List;
+
+public class RegionChangeFeed {
+    private String epoch;
+    private long lastSequence;
+    private boolean resync;
+    private List<RegionChange> changes;
+
+    public RegionChangeFeed() {}
+
+    public RegionChangeFeed(String epoch, long lastSequence, boolean resync, List<RegionChange> changes) {
+        this.epoch = epoch;
+        this.lastSequence = lastSequence;
+        this.resync = resync;
+        this.changes = changes;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(String epoch) {
+        this.epoch = epoch;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+
+    public boolean isResync() {
+        return resync;
+    }
+
+    public void setResync(boolean resync) {
+        this.resync = resync;
+    }
+
+    public List<RegionChange> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<RegionChange> changes) {
+        this.changes = changes;
+    }
+}
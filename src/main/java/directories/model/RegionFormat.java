@@ -0,0 +1,37 @@
+package directories.model;
+
+import directories.exception.ResponseException;
+
+import java.util.Locale;
+
+/**
+ * Format of region files for import and export.
+ */
+public enum RegionFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private static final String WRONG_FORMAT = "Format must be csv or ndjson";
+
+    private final String mediaType;
+
+    RegionFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @param name name of format, ignoring case
+     * @return format
+     */
+    public static RegionFormat of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new ResponseException(WRONG_FORMAT);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package directories.model;
+
+public class RegionImportSummary {
+    private long rows;
+    private long created;
+    private long duplicates;
+    private long rejected;
+    private long millis;
+    private double rowsPerSecond;
+
+    public RegionImportSummary() {}
+
+    public RegionImportSummary(long rows, long created, long duplicates, long rejected, long millis, double rowsPerSecond) {
+        this.rows = rows;
+        this.created = created;
+        this.duplicates = duplicates;
+        this.rejected = rejected;
+        this.millis = millis;
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(long duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public void setMillis(long millis) {
+        this.millis = millis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+}
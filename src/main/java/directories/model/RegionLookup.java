@@ -0,0 +1,39 @@
+package directories.model;
+
+public class RegionLookup {
+    private Long id;
+    private boolean found;
+    private Region region;
+
+    public RegionLookup() {}
+
+    public RegionLookup(Long id, boolean found, Region region) {
+        this.id = id;
+        this.found = found;
+        this.region = region;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public boolean isFound() {
+        return found;
+    }
+
+    public void setFound(boolean found) {
+        this.found = found;
+    }
+
+    public Region getRegion() {
+        return region;
+    }
+
+    public void setRegion(Region region) {
+        this.region = region;
+    }
+}
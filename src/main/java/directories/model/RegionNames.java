@@ -0,0 +1,45 @@
+package directories.model;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalized keys of region names, stored in @code{nameKey} and @code{shortNameKey} columns.
+ * Names that differ only in Unicode form, case or whitespace have the same key.
+ */
+public final class RegionNames {
+
+    /**
+     * Length of name and short name columns.
+     */
+    public static final int MAX_NAME_LENGTH = 100;
+
+    /**
+     * Length of key columns. NFKC expands one character to at most 18, so keys of names that fit
+     * their columns fit too; writes still check the key length.
+     */
+    public static final int MAX_KEY_LENGTH = 18 * MAX_NAME_LENGTH;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+", Pattern.UNICODE_CHARACTER_CLASS);
+
+    private RegionNames() {
+    }
+
+    /**
+     * Builds key: NFKC form, trimmed, inner whitespace collapsed to one space, case folded.
+     * Mapper statements call it through OGNL, so keys are computed in one place.
+     *
+     * @param name name or short name, null is treated as empty
+     * @return normalized key
+     */
+    public static String key(String name) {
+        if (name == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(name, Normalizer.Form.NFKC).strip();
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ");
+        String folded = normalized.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+        return Normalizer.normalize(folded, Normalizer.Form.NFKC);
+    }
+}
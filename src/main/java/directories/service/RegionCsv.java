@@ -0,0 +1,125 @@
+package directories.service;
+
+import directories.model.Region;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV lines of regions: @code{id,name,shortName} on export, @code{name,shortName} or the export
+ * layout on import. Fields with commas, quotes or line breaks are quoted, quotes inside are doubled.
+ */
+public final class RegionCsv {
+
+    public static final String HEADER = "id,name,shortName";
+    private static final String SHORT_HEADER = "name,shortName";
+    private static final int MAX_RECORD_LENGTH = 4096;
+
+    private RegionCsv() {}
+
+    /**
+     * @param line line of file
+     * @return true when line is a header of either layout
+     */
+    public static boolean isHeader(String line) {
+        String header = line.trim();
+        return header.equalsIgnoreCase(HEADER) || header.equalsIgnoreCase(SHORT_HEADER);
+    }
+
+    /**
+     * Reads one record. Line breaks inside quoted fields belong to the record, so it may span lines;
+     * they are read as line feeds. A quote left open for more than any valid record takes no more
+     * lines, the record can't be parsed and later lines are read as usual.
+     *
+     * @param reader file
+     * @return record without its line break, null at end of file
+     */
+    public static String readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null || quotes(line) % 2 == 0) {
+            return line;
+        }
+        StringBuilder record = new StringBuilder(line);
+        int quotes = quotes(line);
+        while (quotes % 2 != 0 && record.length() <= MAX_RECORD_LENGTH && (line = reader.readLine()) != null) {
+            record.append('\n').append(line);
+            quotes += quotes(line);
+        }
+        return record.toString();
+    }
+
+    private static int quotes(String line) {
+        int count = 0;
+        for (int i = line.indexOf('"'); i >= 0; i = line.indexOf('"', i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @param line record of file
+     * @return region without index, null when record has neither two nor three fields
+     */
+    public static Region parse(String line) {
+        List<String> fields = split(line);
+        if (fields == null) {
+            return null;
+        }
+        if (fields.size() == 2) {
+            return new Region(null, fields.get(0), fields.get(1));
+        }
+        if (fields.size() == 3) {
+            return new Region(null, fields.get(1), fields.get(2));
+        }
+        return null;
+    }
+
+    /**
+     * @param region data of region
+     * @return line of file without line break
+     */
+    public static String format(Region region) {
+        return region.getId() + "," + quote(region.getName()) + "," + quote(region.getShortName());
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                }
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                }
+                else quoted = false;
+            }
+            else if (c == '"') {
+                quoted = true;
+            }
+            else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else field.append(c);
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
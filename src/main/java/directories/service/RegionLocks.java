@@ -0,0 +1,88 @@
+package directories.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks for directory writes.
+ * A write to known rows locks stripes of their keys (index, name and shortname pair), so writes
+ * to different rows run in parallel and writes to the same row keep their order up to publication
+ * of the change. A write selecting rows by name or shortname cannot know their indexes beforehand
+ * and locks the whole directory.
+ */
+@Component
+public class RegionLocks {
+
+    private final ReentrantReadWriteLock directoryLock = new ReentrantReadWriteLock();
+    private final ReentrantLock[] stripes;
+
+    public RegionLocks(@Value("${directories.locks.stripes:64}") int stripes) {
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Key of region's name and shortname pair.
+     *
+     * @param name full name of region
+     * @param shortName short name of region
+     * @return key for @code{withRegions}
+     */
+    public static Object key(String name, String shortName) {
+        return List.of(String.valueOf(name), String.valueOf(shortName));
+    }
+
+    /**
+     * Runs action holding stripes of given keys. Stripes are taken in ascending order, so
+     * writes locking several keys cannot deadlock.
+     *
+     * @param action write to run
+     * @param keys region's indexes or pair keys
+     * @return result of action
+     */
+    public <T> T withRegions(Supplier<T> action, Object... keys) {
+        int[] indexes = Arrays.stream(keys).mapToInt(this::stripe).distinct().sorted().toArray();
+        directoryLock.readLock().lock();
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+            directoryLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs action holding the whole directory.
+     *
+     * @param action write to run
+     * @return result of action
+     */
+    public <T> T withDirectory(Supplier<T> action) {
+        directoryLock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            directoryLock.writeLock().unlock();
+        }
+    }
+
+    private int stripe(Object key) {
+        int hash = key.hashCode();
+        return ((hash ^ (hash >>> 16)) & 0x7fffffff) % stripes.length;
+    }
+}
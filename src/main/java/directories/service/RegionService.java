@@ -1,17 +1,57 @@
 package directories.service;
 
+import directories.cache.RegionCacheInvalidator;
+import directories.cache.RegionNegativeCache;
+import directories.cache.SingleFlight;
+import directories.config.CachingConfig;
+import directories.event.DirectoryVersion;
+import directories.event.RegionChangeEvent;
+import directories.event.RegionChangePublisher;
+import directories.exception.InvalidRegionException;
+import directories.exception.NotFoundException;
 import directories.exception.ResponseException;
 import directories.mapper.RegionMapper;
 import directories.model.Region;
+import directories.model.RegionBatchItem;
+import directories.model.RegionLookup;
+import directories.model.RegionNames;
 import directories.model.Update;
+import directories.storage.RegionPrefixIndex;
+import directories.storage.RegionReadEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Service for regions directories
@@ -24,42 +64,183 @@ public class RegionService {
     private static final Logger LOGGER = LogManager.getLogger(RegionService.class);
 
     private static final String EMPTY_RESPONSE = "Directory is empty";
-    private static final String NO_REGION_RESPONSE = "No such region";
-    private static final String ALREADY_EXISTS = "Region with such data already exists";
+    static final String NO_REGION_RESPONSE = "No such region";
+    static final String ALREADY_EXISTS = "Region with such data already exists";
     private static final String ALREADY_DELETE = "Region has already been deleted or does not exist";
+    private static final String WRONG_LIMIT = "Limit must be between 1 and 1000";
+    private static final String WRONG_SUGGEST_LIMIT = "Limit must be between 1 and 100";
+    private static final String WRONG_IDS = "Number of indexes must be between 1 and 1000";
+    private static final String EMPTY_ID = "ID can't be zero";
+    static final String WRONG_NAME = "Name and shortname must have from 1 to " + RegionNames.MAX_NAME_LENGTH + " characters";
+    static final String WRONG_KEY = "Name and shortname must have at most " + RegionNames.MAX_KEY_LENGTH
+            + " characters after normalization";
 
     private static final String SUCCESSFULLY_DELETE = "Region successfully deleted";
 
+    private static final int BATCH_QUERY_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_SUGGESTIONS = 100;
+
     @Autowired
     RegionMapper regionMapper;
 
+    @Autowired
+    RegionReadEngine readEngine;
+
+    @Autowired
+    RegionChangePublisher changePublisher;
+
+    @Autowired
+    ObjectProvider<RegionPrefixIndex> prefixIndex;
+
+    @Autowired
+    @Qualifier("batchSqlSessionTemplate")
+    SqlSessionTemplate batchSqlSessionTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    RegionLocks regionLocks;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    ObjectProvider<RegionWritePipeline> writePipeline;
+
+    @Autowired
+    DirectoryVersion directoryVersion;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    RegionNegativeCache negativeCache;
+
+    @Autowired
+    RegionCacheInvalidator cacheInvalidator;
+
+    private SingleFlight<Long, Region> findByIdFlight;
+    private SingleFlight<SimpleKey, List<Region>> findAllFlight;
+    private SingleFlight<String, List<Region>> findByNameFlight;
+    private SingleFlight<String, List<Region>> findByShortNameFlight;
+    private SingleFlight<List<String>, Region> findByNameAndShortNameFlight;
+    private SingleFlight<String, List<Region>> findByNameKeyFlight;
+    private SingleFlight<String, List<Region>> findByShortNameKeyFlight;
+    private SingleFlight<List<String>, Region> findByNameAndShortNameKeyFlight;
+
+    /**
+     * Creates coalescing of concurrent lookups, one per cached lookup. A lookup joins only loads started
+     * at the same directory version.
+     */
+    @PostConstruct
+    public void init() {
+        findByIdFlight = new SingleFlight<>(CachingConfig.FIND_BY_ID, directoryVersion::get, meterRegistry);
+        findAllFlight = new SingleFlight<>(CachingConfig.FIND_ALL_REGIONS, directoryVersion::get, meterRegistry);
+        findByNameFlight = new SingleFlight<>(CachingConfig.FIND_BY_NAME, directoryVersion::get, meterRegistry);
+        findByShortNameFlight = new SingleFlight<>(CachingConfig.FIND_BY_SHORT_NAME, directoryVersion::get, meterRegistry);
+        findByNameAndShortNameFlight = new SingleFlight<>(CachingConfig.FIND_BY_NAME_AND_SHORT_NAME,
+                directoryVersion::get, meterRegistry);
+        findByNameKeyFlight = new SingleFlight<>(CachingConfig.FIND_BY_NAME_KEY, directoryVersion::get, meterRegistry);
+        findByShortNameKeyFlight = new SingleFlight<>(CachingConfig.FIND_BY_SHORT_NAME_KEY,
+                directoryVersion::get, meterRegistry);
+        findByNameAndShortNameKeyFlight = new SingleFlight<>(CachingConfig.FIND_BY_NAME_AND_SHORT_NAME_KEY,
+                directoryVersion::get, meterRegistry);
+    }
+
     /**
      * Get region's data from database by index.
      * @param id index of region
      * @return region
      */
-    @Cacheable("findById")
     public Region findRegion(Long id) {
         LOGGER.info("get region with index " + id);
-        Region region = regionMapper.findById(id);
-        if (region != null){
-            return region;
+        return lookup(findByIdFlight, CachingConfig.FIND_BY_ID, id,
+                () -> readEngine.findById(id), region -> region != null, NO_REGION_RESPONSE);
+    }
+
+    /**
+     * Get regions data by list of indexes.
+     * Regions are taken from the cache of @code{findRegion} when present, the rest is loaded
+     * with one query per 500 indexes and put into the cache.
+     * @param ids indexes of regions
+     * @return lookup result for every index in request order
+     */
+    public List<RegionLookup> findRegions(List<Long> ids) {
+        LOGGER.info("get " + (ids != null ? ids.size() : 0) + " regions by index");
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_PAGE_SIZE){
+            throw new ResponseException(WRONG_IDS);
+        }
+        Cache cache = cacheManager.getCache(CachingConfig.FIND_BY_ID);
+        Map<Long, Region> regions = new HashMap<>();
+        Set<Long> misses = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null){
+                throw new ResponseException(EMPTY_ID);
+            }
+            Region cached = cache != null ? cache.get(id, Region.class) : null;
+            if (cached != null){
+                regions.put(id, cached);
+            }
+            else misses.add(id);
         }
-        else throw new ResponseException(NO_REGION_RESPONSE);
+        List<Long> missing = new ArrayList<>(misses);
+        long generation = cacheInvalidator.generation();
+        for (int from = 0; from < missing.size(); from += BATCH_QUERY_SIZE) {
+            List<Long> chunk = missing.subList(from, Math.min(from + BATCH_QUERY_SIZE, missing.size()));
+            for (Region region : readEngine.findByIds(chunk)) {
+                regions.put(region.getId(), region);
+                cacheInvalidator.put(CachingConfig.FIND_BY_ID, region.getId(), region, generation);
+            }
+        }
+        List<RegionLookup> lookups = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Region region = regions.get(id);
+            lookups.add(new RegionLookup(id, region != null, region));
+        }
+        return lookups;
     }
 
     /**
      * Get all regions from database
      * @return list of region
      */
-   // @Cacheable("findAllRegions")
     public List<Region> findAllRegions() {
         LOGGER.info("get all regions");
-        List<Region> regions = regionMapper.findAllRegions();
-        if (regions.size()!=0){
-            return regions;
+        return lookup(findAllFlight, CachingConfig.FIND_ALL_REGIONS, SimpleKey.EMPTY,
+                readEngine::findAllRegions, regions -> regions.size()!=0, EMPTY_RESPONSE);
+    }
+
+    /**
+     * Get page of regions ordered by index from database.
+     * @param afterId index of the last region of previous page, null for the first page
+     * @param limit maximal size of page
+     * @return list of region, empty after the last page
+     */
+    public List<Region> findRegionsPage(Long afterId, Integer limit) {
+        LOGGER.info("get " + limit + " regions after index " + afterId);
+        if (limit == null || limit < 1 || limit > MAX_PAGE_SIZE){
+            throw new ResponseException(WRONG_LIMIT);
+        }
+        return regionMapper.findRegionsAfter(afterId != null ? afterId : 0L, limit);
+    }
+
+    /**
+     * Read regions ordered by index from database one by one, without loading them all in memory.
+     * @param afterId index to start after, null for all regions
+     * @param consumer receiver of regions
+     */
+    @Transactional(readOnly = true)
+    public void streamRegions(Long afterId, Consumer<Region> consumer) {
+        LOGGER.info("stream regions after index " + afterId);
+        try (Cursor<Region> cursor = regionMapper.streamRegionsAfter(afterId != null ? afterId : 0L)) {
+            for (Region region : cursor) {
+                consumer.accept(region);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        else throw new ResponseException(EMPTY_RESPONSE);
     }
 
     /**
@@ -67,14 +248,10 @@ public class RegionService {
      * @param name full name of region
      * @return list of region
      */
-    //@Cacheable("findByName")
     public List<Region> findByName(String name) {
         LOGGER.info("get regions with name " + name);
-        List<Region> regions = regionMapper.findByName(name);
-        if (regions.size()!=0){
-            return regions;
-        }
-        else throw new ResponseException(NO_REGION_RESPONSE);
+        return lookup(findByNameFlight, CachingConfig.FIND_BY_NAME, name,
+                () -> readEngine.findByName(name), regions -> regions.size()!=0, NO_REGION_RESPONSE);
     }
 
     /**
@@ -82,14 +259,10 @@ public class RegionService {
      * @param shortname short name of region
      * @return list of region
      */
-    //@Cacheable("findByShortName")
     public List<Region> findByShortName(String shortname) {
         LOGGER.info("get regions with shortname " + shortname);
-        List<Region> regions = regionMapper.findByShortName(shortname);
-        if (regions.size()!=0){
-            return regions;
-        }
-        else throw new ResponseException(NO_REGION_RESPONSE);
+        return lookup(findByShortNameFlight, CachingConfig.FIND_BY_SHORT_NAME, shortname,
+                () -> readEngine.findByShortName(shortname), regions -> regions.size()!=0, NO_REGION_RESPONSE);
     }
 
     /**
@@ -98,14 +271,113 @@ public class RegionService {
      * @param shortname short name of region
      * @return region data
      */
-    //@Cacheable("findByNameAndShortName")
     public Region findByNameAndShortName(String name, String shortname) {
         LOGGER.info("get regions with name " + name + " and shortname "+ shortname);
-        Region region = regionMapper.findByNameAndShortName(name, shortname);
-        if (region != null){
-            return region;
+        return lookup(findByNameAndShortNameFlight, CachingConfig.FIND_BY_NAME_AND_SHORT_NAME,
+                Arrays.asList(name, shortname), () -> readEngine.findByNameAndShortName(name, shortname),
+                region -> region != null, NO_REGION_RESPONSE);
+    }
+
+    /**
+     * Get regions data from database by normalized name: case, whitespace and Unicode form are ignored.
+     * @param name full name of region
+     * @return list of region
+     */
+    public List<Region> findByNameNormalized(String name) {
+        LOGGER.info("get regions with normalized name " + name);
+        return lookup(findByNameKeyFlight, CachingConfig.FIND_BY_NAME_KEY, RegionNames.key(name),
+                () -> regionMapper.findByNameKey(name), regions -> regions.size()!=0, NO_REGION_RESPONSE);
+    }
+
+    /**
+     * Get regions data from database by normalized shortname: case, whitespace and Unicode form are ignored.
+     * @param shortname short name of region
+     * @return list of region
+     */
+    public List<Region> findByShortNameNormalized(String shortname) {
+        LOGGER.info("get regions with normalized shortname " + shortname);
+        return lookup(findByShortNameKeyFlight, CachingConfig.FIND_BY_SHORT_NAME_KEY, RegionNames.key(shortname),
+                () -> regionMapper.findByShortNameKey(shortname), regions -> regions.size()!=0, NO_REGION_RESPONSE);
+    }
+
+    /**
+     * Get region data from database by normalized name and shortname.
+     * @param name full name of region
+     * @param shortname short name of region
+     * @return region data
+     */
+    public Region findByNameAndShortNameNormalized(String name, String shortname) {
+        LOGGER.info("get regions with normalized name " + name + " and shortname "+ shortname);
+        return lookup(findByNameAndShortNameKeyFlight, CachingConfig.FIND_BY_NAME_AND_SHORT_NAME_KEY,
+                Arrays.asList(RegionNames.key(name), RegionNames.key(shortname)),
+                () -> regionMapper.findByNameKeyAndShortNameKey(name, shortname),
+                region -> region != null, NO_REGION_RESPONSE);
+    }
+
+    /**
+     * Runs cached lookup. Cached values and recent misses are answered from the caches, the rest is loaded
+     * once for all concurrent callers and the value or the miss is remembered unless the directory changed
+     * during the load.
+     * @param flight coalescing of the lookup
+     * @param cacheName name of lookup cache
+     * @param key key of lookup
+     * @param loader load from read engine
+     * @param found whether loaded value is an answer
+     * @param notFound message of the miss
+     * @return loaded value
+     */
+    @SuppressWarnings("unchecked")
+    private <K, V> V lookup(SingleFlight<K, V> flight, String cacheName, K key, Supplier<V> loader,
+                            Predicate<V> found, String notFound) {
+        Cache cache = cacheManager.getCache(cacheName);
+        Cache.ValueWrapper cached = cache != null ? cache.get(key) : null;
+        if (cached != null){
+            return (V) cached.get();
+        }
+        NotFoundException miss = negativeCache.get(cacheName, key);
+        if (miss != null){
+            throw miss;
         }
-        else throw new ResponseException(NO_REGION_RESPONSE);
+        return flight.load(key, () -> {
+            long generation = negativeCache.generation();
+            long cacheGeneration = cacheInvalidator.generation();
+            V value = loader.get();
+            if (found.test(value)){
+                cacheInvalidator.put(cacheName, key, value, cacheGeneration);
+                return value;
+            }
+            NotFoundException loadedMiss = new NotFoundException(notFound);
+            negativeCache.put(cacheName, key, loadedMiss, generation);
+            throw loadedMiss;
+        });
+    }
+
+    /**
+     * Get regions whose name or shortname starts with prefix, ignoring case.
+     * Served by the prefix index, or by the key columns of database when the read engine has no index.
+     * @param prefix beginning of name or shortname
+     * @param limit maximal number of regions
+     * @return list of region, empty when nothing matches
+     */
+    public List<Region> suggest(String prefix, Integer limit) {
+        if (limit == null || limit < 1 || limit > MAX_SUGGESTIONS){
+            throw new ResponseException(WRONG_SUGGEST_LIMIT);
+        }
+        if (prefix == null || prefix.isBlank()){
+            return List.of();
+        }
+        RegionPrefixIndex index = prefixIndex.getIfAvailable();
+        if (index != null){
+            return index.suggest(prefix, limit);
+        }
+        String pattern = RegionNames.key(prefix).replaceAll("[\\\\%_]", "\\\\$0") + "%";
+        Map<Long, Region> found = new LinkedHashMap<>();
+        for (Region region : regionMapper.suggestByKey(pattern, limit * 2)) {
+            if (found.size() < limit){
+                found.putIfAbsent(region.getId(), region);
+            }
+        }
+        return new ArrayList<>(found.values());
     }
 
     /**
@@ -115,11 +387,65 @@ public class RegionService {
      */
     public Region add(Region region) {
         LOGGER.info("insert region by data: name " + region.getName() + " shortname " + region.getShortName());
-        if (regionMapper.findByNameAndShortName(region.getName(), region.getShortName()) == null){
-            regionMapper.addRegion(region.getName(), region.getShortName());
-            return regionMapper.findByNameAndShortName(region.getName(), region.getShortName());
+        validate(region.getName());
+        validate(region.getShortName());
+        return regionLocks.withRegions(() -> {
+            Region added = new Region(null, region.getName(), region.getShortName());
+            write(() -> {
+                regionMapper.addRegion(added);
+                return added;
+            });
+            changePublisher.publish(RegionChangeEvent.inserted(added));
+            return added;
+        }, RegionLocks.key(region.getName(), region.getShortName()));
+    }
+
+    /**
+     * Insert list of regions into database in one transaction.
+     * Regions that already exist in database or repeat in the list, compared by normalized keys, are not inserted.
+     * @param regions data of regions
+     * @return status of every region in request order, created regions have generated index
+     */
+    public List<RegionBatchItem> addBatch(List<Region> regions) {
+        LOGGER.info("insert batch of " + regions.size() + " regions");
+        for (Region region : regions) {
+            validate(region.getName());
+            validate(region.getShortName());
         }
-        else throw new ResponseException(ALREADY_EXISTS);
+        return regionLocks.withDirectory(() -> {
+            List<RegionBatchItem> items = new ArrayList<>(regions.size());
+            List<Region> created = write(() -> {
+                RegionMapper batchMapper = batchSqlSessionTemplate.getMapper(RegionMapper.class);
+                List<Region> keys = new ArrayList<>(regions.size());
+                for (Region region : regions) {
+                    keys.add(new Region(null, RegionNames.key(region.getName()), RegionNames.key(region.getShortName())));
+                }
+                Set<List<String>> existing = new HashSet<>();
+                for (int from = 0; from < keys.size(); from += BATCH_QUERY_SIZE) {
+                    List<Region> chunk = keys.subList(from, Math.min(from + BATCH_QUERY_SIZE, keys.size()));
+                    for (Region region : batchMapper.findByKeys(chunk)) {
+                        existing.add(List.of(RegionNames.key(region.getName()), RegionNames.key(region.getShortName())));
+                    }
+                }
+                List<Region> inserted = new ArrayList<>();
+                for (int i = 0; i < regions.size(); i++) {
+                    Region region = regions.get(i);
+                    Region item = new Region(null, region.getName(), region.getShortName());
+                    if (existing.add(List.of(keys.get(i).getName(), keys.get(i).getShortName()))) {
+                        batchMapper.addRegion(item);
+                        inserted.add(item);
+                        items.add(new RegionBatchItem(RegionBatchItem.Status.CREATED, item));
+                    }
+                    else items.add(new RegionBatchItem(RegionBatchItem.Status.DUPLICATE, item));
+                }
+                batchSqlSessionTemplate.flushStatements();
+                return inserted;
+            });
+            if (!created.isEmpty()) {
+                changePublisher.publish(new RegionChangeEvent(List.of(), created));
+            }
+            return items;
+        });
     }
 
     /**
@@ -129,14 +455,7 @@ public class RegionService {
      */
     public Region updateRegion(Region region) {
         LOGGER.info("update region by index " + region.getId());
-        if (regionMapper.findById(region.getId()) != null){
-            if (regionMapper.findByNameAndShortName(region.getName(), region.getShortName())==null){
-                regionMapper.updateRegion(region.getId(), region.getName(), region.getShortName());
-                return regionMapper.findById(region.getId());
-            }
-            else throw new ResponseException(ALREADY_EXISTS);
-        }
-        else throw new ResponseException(NO_REGION_RESPONSE);
+        return update(new RegionUpdate(RegionUpdate.Kind.REGION, region));
     }
 
     /**
@@ -146,15 +465,7 @@ public class RegionService {
      */
     public Region updateNameRegion(Region region) {
         LOGGER.info("update name of region by " + region.getId());
-        if (regionMapper.findById(region.getId()) != null){
-            if (regionMapper.findByNameAndShortName(region.getName(),
-                    regionMapper.findById(region.getId()).getShortName())==null){
-                regionMapper.updateNameRegion(region.getId(), region.getName());
-                return regionMapper.findById(region.getId());
-            }
-            else throw new ResponseException(ALREADY_EXISTS);
-        }
-        else throw new ResponseException(NO_REGION_RESPONSE);
+        return update(new RegionUpdate(RegionUpdate.Kind.NAME, region));
     }
 
     /**
@@ -164,15 +475,57 @@ public class RegionService {
      */
     public Region updateShortNameRegion(Region region) {
         LOGGER.info("update shortname of region by " + region.getId());
-        if (regionMapper.findById(region.getId()) != null){
-            if (regionMapper.findByNameAndShortName(regionMapper.findById(region.getId()).getName(),
-                    region.getShortName())==null){
-                regionMapper.updateShortNameRegion(region.getId(), region.getShortName());
-                return regionMapper.findById(region.getId());
+        return update(new RegionUpdate(RegionUpdate.Kind.SHORT_NAME, region));
+    }
+
+    /**
+     * Applies update by index through the write pipeline when it is enabled, directly otherwise.
+     * @param update update of region
+     * @return updated region
+     */
+    private Region update(RegionUpdate update) {
+        if (update.getKind() != RegionUpdate.Kind.SHORT_NAME){
+            validate(update.getName());
+        }
+        if (update.getKind() != RegionUpdate.Kind.NAME){
+            validate(update.getShortName());
+        }
+        RegionWritePipeline pipeline = writePipeline.getIfAvailable();
+        if (pipeline == null){
+            return applyUpdate(update);
+        }
+        try {
+            return pipeline.submit(update).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException){
+                throw (RuntimeException) e.getCause();
             }
-            else throw new ResponseException(ALREADY_EXISTS);
+            else throw e;
         }
-        else throw new ResponseException(NO_REGION_RESPONSE);
+    }
+
+    /**
+     * Applies update by index in its own transaction and notifies listeners.
+     * @param update update of region
+     * @return updated region
+     */
+    Region applyUpdate(RegionUpdate update) {
+        return regionLocks.withRegions(() -> {
+            Region before = write(() -> {
+                switch (update.getKind()) {
+                    case NAME:
+                        return regionMapper.updateNameRegion(update.getId(), update.getName());
+                    case SHORT_NAME:
+                        return regionMapper.updateShortNameRegion(update.getId(), update.getShortName());
+                    default:
+                        return regionMapper.updateRegion(update.getId(), update.getName(), update.getShortName());
+                }
+            });
+            if (before != null){
+                return publishUpdate(before, update.applyTo(before));
+            }
+            else throw unchangedRegion(update.getId());
+        }, update.lockKeys());
     }
 
     /**
@@ -182,11 +535,9 @@ public class RegionService {
      */
     public List<Region> updateNameRegionByName(Update update) {
         LOGGER.info("update name with name" + update.getLastName() + " to " + update.getNewName());
-        if (regionMapper.findByName(update.getLastName()).size()!=0){
-            regionMapper.updateNameRegionByName(update.getLastName(), update.getNewName());
-            return regionMapper.findByName(update.getNewName());
-        }
-        else throw new ResponseException(NO_REGION_RESPONSE);
+        validate(update.getNewName());
+        return publishRename(() -> regionMapper.updateNameRegionByName(update.getLastName(), update.getNewName()),
+                before -> new Region(before.getId(), update.getNewName(), before.getShortName()));
     }
 
     /**
@@ -196,11 +547,9 @@ public class RegionService {
      */
     public List<Region> updateShortNameRegionByShortName(Update update) {
         LOGGER.info("update shortname with shortname" + update.getLastName() + " to " + update.getNewName());
-        if (regionMapper.findByShortName(update.getLastName()).size()!=0){
-            regionMapper.updateShortNameRegionByShortName(update.getLastName(), update.getNewName());
-            return regionMapper.findByShortName(update.getNewName());
-        }
-        else throw new ResponseException(NO_REGION_RESPONSE);
+        validate(update.getNewName());
+        return publishRename(() -> regionMapper.updateShortNameRegionByShortName(update.getLastName(), update.getNewName()),
+                before -> new Region(before.getId(), before.getName(), update.getNewName()));
     }
 
     /**
@@ -210,11 +559,14 @@ public class RegionService {
      */
     public String deleteRegionById(Long id) {
         LOGGER.info("delete region by index " + id);
-        if (regionMapper.findById(id) != null){
-            regionMapper.deleteRegionById(id);
-            return SUCCESSFULLY_DELETE;
-        }
-        else throw new ResponseException(ALREADY_DELETE);
+        return regionLocks.withRegions(() -> {
+            Region before = write(() -> regionMapper.deleteRegionById(id));
+            if (before != null){
+                changePublisher.publish(RegionChangeEvent.deleted(List.of(before)));
+                return SUCCESSFULLY_DELETE;
+            }
+            else throw new ResponseException(ALREADY_DELETE);
+        }, id);
     }
 
     /**
@@ -224,11 +576,7 @@ public class RegionService {
      */
     public String deleteRegionByName(String name) {
         LOGGER.info("delete regions with name " + name);
-        if (regionMapper.findByName(name).size()!=0){
-            regionMapper.deleteRegionByName(name);
-            return SUCCESSFULLY_DELETE;
-        }
-        else throw new ResponseException(ALREADY_DELETE);
+        return publishDelete(() -> regionMapper.deleteRegionByName(name));
     }
 
     /**
@@ -238,11 +586,7 @@ public class RegionService {
      */
     public String deleteRegionByShortName(String shortname) {
         LOGGER.info("delete regions with shortname " + shortname);
-        if (regionMapper.findByShortName(shortname).size()!=0){
-            regionMapper.deleteRegionByShortName(shortname);
-            return SUCCESSFULLY_DELETE;
-        }
-        else throw new ResponseException(ALREADY_DELETE);
+        return publishDelete(() -> regionMapper.deleteRegionByShortName(shortname));
     }
 
     /**
@@ -253,11 +597,96 @@ public class RegionService {
      */
     public String deleteRegionByNameAndShortName(String name, String shortname) {
         LOGGER.info("delete regions with name " + name + " and shortname "+ shortname);
-        if (regionMapper.findByNameAndShortName(name, shortname) != null){
-            regionMapper.deleteRegionByNameAndShortName(name, shortname);
-            return SUCCESSFULLY_DELETE;
+        return publishDelete(() -> {
+            Region before = regionMapper.deleteRegionByNameAndShortName(name, shortname);
+            return before != null ? List.of(before) : List.of();
+        });
+    }
+
+    /**
+     * Runs database write in its own transaction, which is committed before the change is published.
+     * @param statement database write
+     * @return result of write
+     */
+    private <T> T write(Supplier<T> statement) {
+        try {
+            return transactionTemplate.execute(status -> statement.get());
+        } catch (DuplicateKeyException e) {
+            throw new ResponseException(ALREADY_EXISTS);
         }
-        else throw new ResponseException(ALREADY_DELETE);
     }
 
+    /**
+     * Checks that name or shortname and its normalized key fit their columns.
+     * @param name name or shortname to write
+     */
+    static void validate(String name) {
+        if (name == null || name.isBlank() || name.length() > RegionNames.MAX_NAME_LENGTH){
+            throw new InvalidRegionException(WRONG_NAME);
+        }
+        if (RegionNames.key(name).length() > RegionNames.MAX_KEY_LENGTH){
+            throw new InvalidRegionException(WRONG_KEY);
+        }
+    }
+
+    /**
+     * Notifies listeners about update of one region.
+     * @param before region's data before update
+     * @param after region's data after update
+     * @return updated region
+     */
+    private Region publishUpdate(Region before, Region after) {
+        changePublisher.publish(RegionChangeEvent.updated(before, after));
+        return after;
+    }
+
+    /**
+     * Renames regions selected by name or shortname with one statement returning their old data,
+     * and notifies listeners about exactly these regions.
+     * @param statement update returning renamed regions as they were before it
+     * @param rename data of region after the update
+     * @return renamed regions ordered by index
+     */
+    private List<Region> publishRename(Supplier<List<Region>> statement, Function<Region, Region> rename) {
+        return regionLocks.withDirectory(() -> {
+            List<Region> before = write(statement);
+            if (before.size()!=0){
+                List<Region> after = new ArrayList<>(before.size());
+                for (Region region : before) {
+                    after.add(rename.apply(region));
+                }
+                changePublisher.publish(new RegionChangeEvent(before, after));
+                return after;
+            }
+            else throw new NotFoundException(NO_REGION_RESPONSE);
+        });
+    }
+
+    /**
+     * Deletes regions selected by name or shortname and notifies listeners.
+     * @param statement delete returning deleted regions
+     * @return deletion success message
+     */
+    private String publishDelete(Supplier<List<Region>> statement) {
+        return regionLocks.withDirectory(() -> {
+            List<Region> before = write(statement);
+            if (before.size()!=0){
+                changePublisher.publish(RegionChangeEvent.deleted(before));
+                return SUCCESSFULLY_DELETE;
+            }
+            else throw new ResponseException(ALREADY_DELETE);
+        });
+    }
+
+    /**
+     * Explains why update by index changed no row: region is absent or already has requested data.
+     * @param id index of region
+     * @return exception to throw
+     */
+    private ResponseException unchangedRegion(Long id) {
+        if (regionMapper.findById(id) != null){
+            return new ResponseException(ALREADY_EXISTS);
+        }
+        else return new NotFoundException(NO_REGION_RESPONSE);
+    }
 }
@@ -0,0 +1,205 @@
+package directories.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import directories.exception.InvalidRegionException;
+import directories.model.Region;
+import directories.model.RegionBatchItem;
+import directories.model.RegionFormat;
+import directories.model.RegionImportSummary;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk import and export of regions as CSV or NDJSON files.
+ * Import parses the stream record by record and inserts it in batches through @code{RegionService.addBatch},
+ * export writes rows from a database cursor, so memory use does not depend on the size of the file.
+ */
+@Service
+public class RegionTransferService {
+
+    private static final Logger LOGGER = LogManager.getLogger(RegionTransferService.class);
+
+    @Autowired
+    RegionService regionService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${directories.transfer.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${directories.transfer.progress-rows:100000}")
+    private long progressRows;
+
+    /**
+     * Import regions from file. Records that can't be parsed or stored are rejected and logged,
+     * regions that already exist are counted as duplicates.
+     * @param in content of file
+     * @param format format of file
+     * @return numbers of rows and throughput
+     */
+    public RegionImportSummary importRegions(InputStream in, RegionFormat format) {
+        LOGGER.info("import regions from " + format);
+        long start = System.nanoTime();
+        long rows = 0;
+        long[] counts = new long[3];
+        List<Region> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String record;
+            long number = 0;
+            while ((record = format == RegionFormat.CSV ? RegionCsv.readRecord(reader) : reader.readLine()) != null) {
+                long line = number + 1;
+                number += 1 + record.chars().filter(c -> c == '\n').count();
+                if (record.isBlank() || (line == 1 && format == RegionFormat.CSV && RegionCsv.isHeader(record))) {
+                    continue;
+                }
+                rows++;
+                Region region = parse(record, format);
+                String problem = region == null ? "can't be parsed" : check(region);
+                if (problem != null) {
+                    counts[2]++;
+                    LOGGER.warn("line " + line + " rejected, " + problem + ": " + record);
+                    continue;
+                }
+                batch.add(region);
+                if (batch.size() == batchSize) {
+                    insert(batch, counts);
+                }
+                if (rows % progressRows == 0) {
+                    LOGGER.info("imported " + rows + " rows, " + rate(rows, start) + " rows/s");
+                }
+            }
+            insert(batch, counts);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long millis = (System.nanoTime() - start) / 1000000;
+        LOGGER.info("import finished: " + rows + " rows, " + counts[0] + " created, " + counts[1]
+                + " duplicates, " + counts[2] + " rejected in " + millis + " ms");
+        return new RegionImportSummary(rows, counts[0], counts[1], counts[2], millis, rate(rows, start));
+    }
+
+    /**
+     * Export all regions ordered by index into file.
+     * @param out stream of file, flushed but not closed
+     * @param format format of file
+     * @return number of exported regions
+     */
+    public long exportRegions(OutputStream out, RegionFormat format) {
+        LOGGER.info("export regions to " + format);
+        long start = System.nanoTime();
+        long[] rows = new long[1];
+        OutputStream buffered = new BufferedOutputStream(out, 65536);
+        ObjectWriter writer = objectMapper.writerFor(Region.class);
+        try {
+            if (format == RegionFormat.CSV) {
+                buffered.write((RegionCsv.HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            regionService.streamRegions(null, region -> {
+                try {
+                    if (format == RegionFormat.CSV) {
+                        buffered.write(RegionCsv.format(region).getBytes(StandardCharsets.UTF_8));
+                    }
+                    else buffered.write(writer.writeValueAsBytes(region));
+                    buffered.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++rows[0] % progressRows == 0) {
+                    LOGGER.info("exported " + rows[0] + " rows, " + rate(rows[0], start) + " rows/s");
+                }
+            });
+            buffered.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        LOGGER.info("export finished: " + rows[0] + " rows in " + (System.nanoTime() - start) / 1000000 + " ms");
+        return rows[0];
+    }
+
+    private Region parse(String line, RegionFormat format) {
+        if (format == RegionFormat.CSV) {
+            return RegionCsv.parse(line);
+        }
+        try {
+            Region region = objectMapper.readValue(line, Region.class);
+            region.setId(null);
+            return region;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return why region can't be stored, null when it can
+     */
+    private static String check(Region region) {
+        try {
+            RegionService.validate(region.getName());
+            RegionService.validate(region.getShortName());
+            return null;
+        } catch (InvalidRegionException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Inserts batch and counts created, duplicate and rejected regions. When the batch fails, for example
+     * on a region added concurrently, its regions are added one by one, so one row can't stop the import.
+     */
+    private void insert(List<Region> batch, long[] counts) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<RegionBatchItem> items;
+        try {
+            items = regionService.addBatch(batch);
+        } catch (RuntimeException e) {
+            LOGGER.warn("batch of " + batch.size() + " regions failed, adding them one by one: " + e.getMessage());
+            for (Region region : batch) {
+                try {
+                    regionService.add(region);
+                    counts[0]++;
+                } catch (RuntimeException single) {
+                    if (RegionService.ALREADY_EXISTS.equals(single.getMessage())) {
+                        counts[1]++;
+                    }
+                    else {
+                        counts[2]++;
+                        LOGGER.warn("region " + region.getName() + " " + region.getShortName() + " rejected: "
+                                + single.getMessage());
+                    }
+                }
+            }
+            batch.clear();
+            return;
+        }
+        for (RegionBatchItem item : items) {
+            if (item.getStatus() == RegionBatchItem.Status.CREATED) {
+                counts[0]++;
+            }
+            else counts[1]++;
+        }
+        batch.clear();
+    }
+
+    private static double rate(long rows, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return seconds > 0 ? Math.round(rows / seconds) : rows;
+    }
+}
@@ -0,0 +1,68 @@
+package directories.service;
+
+import directories.model.Region;
+
+/**
+ * Update of one region by index: whole data, name only or shortname only.
+ */
+public class RegionUpdate {
+
+    public enum Kind {
+        REGION,
+        NAME,
+        SHORT_NAME
+    }
+
+    private final Kind kind;
+    private final Long id;
+    private final String name;
+    private final String shortName;
+
+    public RegionUpdate(Kind kind, Region region) {
+        this.kind = kind;
+        this.id = region.getId();
+        this.name = region.getName();
+        this.shortName = region.getShortName();
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getShortName() {
+        return shortName;
+    }
+
+    /**
+     * @return keys to lock in @code{RegionLocks} before applying the update
+     */
+    public Object[] lockKeys() {
+        if (kind == Kind.REGION) {
+            return new Object[]{id, RegionLocks.key(name, shortName)};
+        }
+        return new Object[]{id};
+    }
+
+    /**
+     * @param before current data of region
+     * @return data of region after the update
+     */
+    public Region applyTo(Region before) {
+        switch (kind) {
+            case NAME:
+                return new Region(before.getId(), name, before.getShortName());
+            case SHORT_NAME:
+                return new Region(before.getId(), before.getName(), shortName);
+            default:
+                return new Region(before.getId(), name, shortName);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package directories.service;
+
+import directories.event.RegionChangeEvent;
+import directories.event.RegionChangePublisher;
+import directories.exception.NotFoundException;
+import directories.exception.ResponseException;
+import directories.mapper.RegionMapper;
+import directories.model.Region;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit of updates by index.
+ * Updates are queued and taken by one worker in batches bounded by size and by delay after the first
+ * update. A batch reads its regions with one query, writes them with one JDBC batch and commits once,
+ * then publishes a change per update in queue order. When the batch fails, for example on a duplicate
+ * name and shortname pair, its updates are applied one by one, so every caller gets its own result.
+ */
+@Component
+@ConditionalOnProperty(name = "directories.write-pipeline.enabled", havingValue = "true")
+public class RegionWritePipeline {
+
+    private static final Logger LOGGER = LogManager.getLogger(RegionWritePipeline.class);
+    private static final String STOPPED = "Write pipeline is stopped";
+
+    @Autowired
+    RegionService regionService;
+
+    @Autowired
+    RegionChangePublisher changePublisher;
+
+    @Autowired
+    RegionLocks regionLocks;
+
+    @Autowired
+    @Qualifier("batchSqlSessionTemplate")
+    SqlSessionTemplate batchSqlSessionTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Value("${directories.write-pipeline.batch-size:100}")
+    private int batchSize;
+
+    @Value("${directories.write-pipeline.max-delay:5ms}")
+    private Duration maxDelay;
+
+    @Value("${directories.write-pipeline.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<Write> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::work, "region-write-pipeline");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops taking updates and applies the queued ones. Updates queued after the worker has finished fail.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join();
+        for (Write write = queue.poll(); write != null; write = queue.poll()) {
+            write.result.completeExceptionally(new IllegalStateException(STOPPED));
+        }
+    }
+
+    /**
+     * Queues update, waiting for room when the queue is full.
+     *
+     * @param update update of region
+     * @return updated region, or error of the update
+     */
+    public CompletableFuture<Region> submit(RegionUpdate update) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException(STOPPED));
+        }
+        Write write = new Write(update);
+        try {
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write.result.completeExceptionally(e);
+            return write.result;
+        }
+        // stopped while queueing: the update is failed here unless the worker or stop() already took it
+        if (!running && queue.remove(write)) {
+            write.result.completeExceptionally(new IllegalStateException(STOPPED));
+        }
+        return write.result;
+    }
+
+    private void work() {
+        List<Write> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Write first = running ? queue.take() : queue.poll();
+                if (first == null) {
+                    break;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelay.toNanos();
+                while (batch.size() < batchSize) {
+                    Write next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // stop() wakes the worker up, queued updates are still applied
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    apply(batch);
+                } catch (Throwable e) {
+                    // the worker must survive any failure, callers of the batch get it as their result
+                    LOGGER.error("batch of " + batch.size() + " updates failed", e);
+                    for (Write write : batch) {
+                        write.result.completeExceptionally(e);
+                    }
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void apply(List<Write> batch) {
+        Set<Object> keys = new LinkedHashSet<>();
+        for (Write write : batch) {
+            keys.addAll(List.of(write.update.lockKeys()));
+        }
+        boolean committed = regionLocks.withRegions(() -> {
+            List<RegionChangeEvent> events;
+            try {
+                events = commit(batch);
+            } catch (RuntimeException e) {
+                LOGGER.warn("batch of " + batch.size() + " updates failed, applying them one by one: " + e.getMessage());
+                return false;
+            }
+            for (RegionChangeEvent event : events) {
+                changePublisher.publish(event);
+            }
+            return true;
+        }, keys.toArray());
+        for (Write write : batch) {
+            if (!committed) {
+                try {
+                    write.result.complete(regionService.applyUpdate(write.update));
+                } catch (RuntimeException e) {
+                    write.result.completeExceptionally(e);
+                }
+            }
+            else if (write.error != null) {
+                write.result.completeExceptionally(write.error);
+            }
+            else write.result.complete(write.after);
+        }
+    }
+
+    /**
+     * Writes batch in one transaction. Updates of the same region see the result of previous ones.
+     *
+     * @return changes to publish, in queue order
+     */
+    private List<RegionChangeEvent> commit(List<Write> batch) {
+        return transactionTemplate.execute(status -> {
+            RegionMapper batchMapper = batchSqlSessionTemplate.getMapper(RegionMapper.class);
+            Set<Long> ids = new LinkedHashSet<>();
+            for (Write write : batch) {
+                ids.add(write.update.getId());
+            }
+            Map<Long, Region> current = new HashMap<>();
+            for (Region region : batchMapper.findByIds(ids)) {
+                current.put(region.getId(), region);
+            }
+            List<RegionChangeEvent> events = new ArrayList<>(batch.size());
+            for (Write write : batch) {
+                Region before = current.get(write.update.getId());
+                if (before == null) {
+                    write.error = new NotFoundException(RegionService.NO_REGION_RESPONSE);
+                    continue;
+                }
+                Region after = write.update.applyTo(before);
+                if (after.getName().equals(before.getName()) && after.getShortName().equals(before.getShortName())) {
+                    write.error = new ResponseException(RegionService.ALREADY_EXISTS);
+                    continue;
+                }
+                batchMapper.setRegion(after);
+                current.put(after.getId(), after);
+                write.after = after;
+                events.add(RegionChangeEvent.updated(before, after));
+            }
+            batchSqlSessionTemplate.flushStatements();
+            return events;
+        });
+    }
+
+    private static final class Write {
+
+        private final RegionUpdate update;
+        private final CompletableFuture<Region> result = new CompletableFuture<>();
+        private Region after;
+        private RuntimeException error;
+
+        private Write(RegionUpdate update) {
+            this.update = update;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package directories.storage;
+
+import directories.event.RegionChangeEvent;
+import directories.mapper.RegionMapper;
+import directories.model.Region;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Default read engine, every lookup is a query to database.
+ */
+@Component
+@ConditionalOnProperty(name = "directories.read-engine", havingValue = "database", matchIfMissing = true)
+public class DatabaseReadEngine implements RegionReadEngine {
+
+    @Autowired
+    RegionMapper regionMapper;
+
+    @Override
+    public Region findById(Long id) {
+        return regionMapper.findById(id);
+    }
+
+    @Override
+    public List<Region> findByIds(Collection<Long> ids) {
+        return regionMapper.findByIds(ids);
+    }
+
+    @Override
+    public List<Region> findAllRegions() {
+        return regionMapper.findAllRegions();
+    }
+
+    @Override
+    public List<Region> findByName(String name) {
+        return regionMapper.findByName(name);
+    }
+
+    @Override
+    public List<Region> findByShortName(String shortName) {
+        return regionMapper.findByShortName(shortName);
+    }
+
+    @Override
+    public Region findByNameAndShortName(String name, String shortName) {
+        return regionMapper.findByNameAndShortName(name, shortName);
+    }
+
+    @Override
+    public void apply(RegionChangeEvent event) {
+        // database is the source of truth, nothing to do
+    }
+}
@@ -0,0 +1,130 @@
+package directories.storage;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from long to int on primitive arrays, without boxing.
+ * Collisions are resolved by linear probing, removal shifts following entries back instead of
+ * leaving tombstones. @code{Long.MIN_VALUE} marks a free cell and can't be used as a key.
+ * Not thread-safe.
+ */
+final class LongIntIndex {
+
+    static final int ABSENT = -1;
+
+    private static final long FREE = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntIndex(int expected) {
+        allocate(capacityFor(expected));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param key key to look up
+     * @return value of key, @code{ABSENT} when key is not present
+     */
+    int get(long key) {
+        for (int i = cell(key); ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == key) {
+                return values[i];
+            }
+            if (current == FREE) {
+                return ABSENT;
+            }
+        }
+    }
+
+    /**
+     * Inserts key or replaces its value.
+     *
+     * @param key key, not @code{Long.MIN_VALUE}
+     * @param value value of key
+     */
+    void put(long key, int value) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Key " + key + " is reserved");
+        }
+        if ((size + 1) * 4L > keys.length * 3L) {
+            rehash(keys.length * 2);
+        }
+        for (int i = cell(key); ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == key) {
+                values[i] = value;
+                return;
+            }
+            if (current == FREE) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes key, entries probed after it are moved back so lookups still find them.
+     *
+     * @param key key to remove
+     */
+    void remove(long key) {
+        int hole = cell(key);
+        while (keys[hole] != key) {
+            if (keys[hole] == FREE) {
+                return;
+            }
+            hole = (hole + 1) & mask;
+        }
+        for (int i = (hole + 1) & mask; keys[i] != FREE; i = (i + 1) & mask) {
+            int home = cell(keys[i]);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        keys[hole] = FREE;
+        size--;
+    }
+
+    private int cell(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private static int capacityFor(int expected) {
+        int capacity = 16;
+        while (capacity * 3L < expected * 4L) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+}
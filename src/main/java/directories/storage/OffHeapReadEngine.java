@@ -0,0 +1,109 @@
+package directories.storage;
+
+import directories.event.RegionChangeEvent;
+import directories.event.RegionResyncEvent;
+import directories.mapper.RegionMapper;
+import directories.model.Region;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read engine serving lookups from an @code{OffHeapRegionStore}, for directories of millions of regions.
+ * The table is streamed into a new store, so it is never held as a list of @code{Region} objects.
+ * Changes are applied before caches are invalidated, so a lookup loaded after the invalidation
+ * never reads the old state.
+ */
+@Component
+@ConditionalOnProperty(name = "directories.read-engine", havingValue = "offheap")
+public class OffHeapReadEngine implements RegionReadEngine {
+
+    private static final Logger LOGGER = LogManager.getLogger(OffHeapReadEngine.class);
+
+    @Autowired
+    RegionMapper regionMapper;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Value("${directories.offheap.chunk-size:16MB}")
+    private DataSize chunkSize;
+
+    @Value("${directories.offheap.expected-size:100000}")
+    private int expectedSize;
+
+    private volatile OffHeapRegionStore store;
+
+    /**
+     * Loads whole table into a new store and replaces the current one.
+     */
+    @PostConstruct
+    @EventListener(RegionResyncEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void reload() {
+        OffHeapRegionStore loaded = new OffHeapRegionStore((int) chunkSize.toBytes(), expectedSize);
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Cursor<Region> cursor = regionMapper.streamRegionsAfter(0L)) {
+                for (Region region : cursor) {
+                    loaded.put(region);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        store = loaded;
+        LOGGER.info("off-heap store loaded with " + loaded.size() + " regions in " + loaded.arenaBytes() + " bytes");
+    }
+
+    @Override
+    public Region findById(Long id) {
+        return store.findById(id);
+    }
+
+    @Override
+    public List<Region> findByIds(Collection<Long> ids) {
+        return store.findByIds(ids);
+    }
+
+    @Override
+    public List<Region> findAllRegions() {
+        return store.findAllRegions();
+    }
+
+    @Override
+    public List<Region> findByName(String name) {
+        return store.findByName(name);
+    }
+
+    @Override
+    public List<Region> findByShortName(String shortName) {
+        return store.findByShortName(shortName);
+    }
+
+    @Override
+    public Region findByNameAndShortName(String name, String shortName) {
+        return store.findByNameAndShortName(name, shortName);
+    }
+
+    @Override
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void apply(RegionChangeEvent event) {
+        store.apply(event.getBefore(), event.getAfter());
+    }
+}
@@ -0,0 +1,451 @@
+package directories.storage;
+
+import directories.model.Region;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Copy of the REGIONS table for directories too large to keep as @code{Region} objects.
+ * Every row takes a slot of primitive arrays: id, offset of its record in the arena and hashes of its names.
+ * Names and shortNames are UTF-8 records in direct buffers outside of the heap, so the garbage collector
+ * sees a few large arrays whatever the size of the directory. Slots are found by id through
+ * @code{LongIntIndex} and by name or shortName through chained hash buckets. @code{Region} objects are
+ * created only for returned rows.
+ * A changed row gets a new record, the old one becomes garbage, and the arena is compacted once garbage
+ * outgrows live records. Reads share a read lock, changes take the write lock.
+ */
+public final class OffHeapRegionStore {
+
+    private static final int NONE = -1;
+    private static final long DELETED = -1L;
+    private static final int MIN_CHUNK_SIZE = 4096;
+    private static final int MAX_FIELD_LENGTH = 0xFFFF;
+
+    private final int chunkSize;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private long arenaEnd;
+    private long liveBytes;
+
+    private long[] ids;
+    private long[] rows;
+    private int[] nameHashes;
+    private int[] shortNameHashes;
+    private int[] nextByName;
+    private int[] nextByShortName;
+    private int slots;
+    private int freeSlot = NONE;
+
+    private int[] nameBuckets;
+    private int[] shortNameBuckets;
+    private int bucketMask;
+
+    private final LongIntIndex byId;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Creates empty store.
+     *
+     * @param chunkSize size in bytes of one direct buffer of the arena
+     * @param expected expected number of regions
+     */
+    public OffHeapRegionStore(int chunkSize, int expected) {
+        if (chunkSize < MIN_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be at least " + MIN_CHUNK_SIZE + " bytes");
+        }
+        this.chunkSize = chunkSize;
+        int capacity = 16;
+        while (capacity < expected) {
+            capacity *= 2;
+        }
+        ids = new long[capacity];
+        rows = new long[capacity];
+        nameHashes = new int[capacity];
+        shortNameHashes = new int[capacity];
+        nextByName = new int[capacity];
+        nextByShortName = new int[capacity];
+        byId = new LongIntIndex(expected);
+        rebuildBuckets();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return bytes of direct buffers taken by the arena
+     */
+    public long arenaBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) chunks.size() * chunkSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Region findById(Long id) {
+        if (id == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int slot = byId.get(id);
+            return slot != LongIntIndex.ABSENT ? region(slot) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Region> findByIds(Collection<Long> ids) {
+        lock.readLock().lock();
+        try {
+            List<Region> regions = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                int slot = id != null ? byId.get(id) : LongIntIndex.ABSENT;
+                if (slot != LongIntIndex.ABSENT) {
+                    regions.add(region(slot));
+                }
+            }
+            return regions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return all regions ordered by id
+     */
+    public List<Region> findAllRegions() {
+        lock.readLock().lock();
+        try {
+            long[] live = new long[byId.size()];
+            int count = 0;
+            for (int slot = 0; slot < slots; slot++) {
+                if (rows[slot] != DELETED) {
+                    live[count++] = ids[slot];
+                }
+            }
+            Arrays.sort(live);
+            List<Region> regions = new ArrayList<>(live.length);
+            for (long id : live) {
+                regions.add(region(byId.get(id)));
+            }
+            return regions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param name full name of region
+     * @return regions with the name ordered by id, empty when name is null
+     */
+    public List<Region> findByName(String name) {
+        if (name == null){
+            return new ArrayList<>();
+        }
+        byte[] encoded = encode(name);
+        int hash = name.hashCode();
+        lock.readLock().lock();
+        try {
+            List<Region> regions = new ArrayList<>();
+            for (int slot = nameBuckets[bucket(hash)]; slot != NONE; slot = nextByName[slot]) {
+                if (nameHashes[slot] == hash && fieldEquals(rows[slot], false, encoded)) {
+                    regions.add(region(slot));
+                }
+            }
+            regions.sort(Comparator.comparing(Region::getId));
+            return regions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param shortName short name of region
+     * @return regions with the shortName ordered by id, empty when shortName is null
+     */
+    public List<Region> findByShortName(String shortName) {
+        if (shortName == null){
+            return new ArrayList<>();
+        }
+        byte[] encoded = encode(shortName);
+        int hash = shortName.hashCode();
+        lock.readLock().lock();
+        try {
+            List<Region> regions = new ArrayList<>();
+            for (int slot = shortNameBuckets[bucket(hash)]; slot != NONE; slot = nextByShortName[slot]) {
+                if (shortNameHashes[slot] == hash && fieldEquals(rows[slot], true, encoded)) {
+                    regions.add(region(slot));
+                }
+            }
+            regions.sort(Comparator.comparing(Region::getId));
+            return regions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param name full name of region
+     * @param shortName short name of region
+     * @return region with both the name and the shortName, null when there is none or either is null
+     */
+    public Region findByNameAndShortName(String name, String shortName) {
+        if (name == null || shortName == null){
+            return null;
+        }
+        byte[] encodedName = encode(name);
+        byte[] encodedShortName = encode(shortName);
+        int hash = name.hashCode();
+        int shortHash = shortName.hashCode();
+        lock.readLock().lock();
+        try {
+            for (int slot = nameBuckets[bucket(hash)]; slot != NONE; slot = nextByName[slot]) {
+                if (nameHashes[slot] == hash && shortNameHashes[slot] == shortHash
+                        && fieldEquals(rows[slot], false, encodedName)
+                        && fieldEquals(rows[slot], true, encodedShortName)) {
+                    return region(slot);
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts region or replaces region with the same id.
+     *
+     * @param region row of table
+     */
+    public void put(Region region) {
+        lock.writeLock().lock();
+        try {
+            store(region);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a change of the table, then compacts the arena if it holds more garbage than live records.
+     *
+     * @param removed regions to remove, only ids are used
+     * @param added regions to insert or replace by id
+     */
+    public void apply(Collection<Region> removed, Collection<Region> added) {
+        lock.writeLock().lock();
+        try {
+            for (Region region : removed) {
+                delete(region.getId());
+            }
+            for (Region region : added) {
+                store(region);
+            }
+            long garbage = arenaEnd - liveBytes;
+            if (garbage > chunkSize && garbage > liveBytes) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void store(Region region) {
+        byte[] name = encode(region.getName());
+        byte[] shortName = encode(region.getShortName());
+        int slot = byId.get(region.getId());
+        if (slot != LongIntIndex.ABSENT) {
+            unlink(slot);
+            liveBytes -= recordLength(rows[slot]);
+        } else {
+            slot = allocateSlot();
+            ids[slot] = region.getId();
+            byId.put(region.getId(), slot);
+        }
+        rows[slot] = append(name, shortName);
+        liveBytes += 4 + name.length + shortName.length;
+        nameHashes[slot] = region.getName().hashCode();
+        shortNameHashes[slot] = region.getShortName().hashCode();
+        link(slot);
+    }
+
+    private void delete(Long id) {
+        int slot = byId.get(id);
+        if (slot == LongIntIndex.ABSENT) {
+            return;
+        }
+        unlink(slot);
+        liveBytes -= recordLength(rows[slot]);
+        rows[slot] = DELETED;
+        byId.remove(id);
+        nextByName[slot] = freeSlot;
+        freeSlot = slot;
+    }
+
+    private int allocateSlot() {
+        if (freeSlot != NONE) {
+            int slot = freeSlot;
+            freeSlot = nextByName[slot];
+            return slot;
+        }
+        if (slots == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+            nameHashes = Arrays.copyOf(nameHashes, capacity);
+            shortNameHashes = Arrays.copyOf(shortNameHashes, capacity);
+            nextByName = Arrays.copyOf(nextByName, capacity);
+            nextByShortName = Arrays.copyOf(nextByShortName, capacity);
+            rebuildBuckets();
+        }
+        return slots++;
+    }
+
+    private void rebuildBuckets() {
+        nameBuckets = new int[ids.length];
+        shortNameBuckets = new int[ids.length];
+        Arrays.fill(nameBuckets, NONE);
+        Arrays.fill(shortNameBuckets, NONE);
+        bucketMask = ids.length - 1;
+        for (int slot = 0; slot < slots; slot++) {
+            if (rows[slot] != DELETED) {
+                link(slot);
+            }
+        }
+    }
+
+    private void link(int slot) {
+        int nameBucket = bucket(nameHashes[slot]);
+        nextByName[slot] = nameBuckets[nameBucket];
+        nameBuckets[nameBucket] = slot;
+        int shortNameBucket = bucket(shortNameHashes[slot]);
+        nextByShortName[slot] = shortNameBuckets[shortNameBucket];
+        shortNameBuckets[shortNameBucket] = slot;
+    }
+
+    private void unlink(int slot) {
+        int nameBucket = bucket(nameHashes[slot]);
+        if (nameBuckets[nameBucket] == slot) {
+            nameBuckets[nameBucket] = nextByName[slot];
+        } else {
+            int previous = nameBuckets[nameBucket];
+            while (nextByName[previous] != slot) {
+                previous = nextByName[previous];
+            }
+            nextByName[previous] = nextByName[slot];
+        }
+        int shortNameBucket = bucket(shortNameHashes[slot]);
+        if (shortNameBuckets[shortNameBucket] == slot) {
+            shortNameBuckets[shortNameBucket] = nextByShortName[slot];
+        } else {
+            int previous = shortNameBuckets[shortNameBucket];
+            while (nextByShortName[previous] != slot) {
+                previous = nextByShortName[previous];
+            }
+            nextByShortName[previous] = nextByShortName[slot];
+        }
+    }
+
+    private int bucket(int hash) {
+        return (hash ^ (hash >>> 16)) & bucketMask;
+    }
+
+    /**
+     * Writes record: length of name, name, length of shortName, shortName. Records never cross chunks.
+     */
+    private long append(byte[] name, byte[] shortName) {
+        int length = 4 + name.length + shortName.length;
+        int chunk = (int) (arenaEnd / chunkSize);
+        int position = (int) (arenaEnd % chunkSize);
+        if (position + length > chunkSize) {
+            chunk++;
+            position = 0;
+        }
+        if (chunk == chunks.size()) {
+            chunks.add(ByteBuffer.allocateDirect(chunkSize));
+        }
+        ByteBuffer buffer = chunks.get(chunk).duplicate();
+        buffer.position(position);
+        buffer.putShort((short) name.length).put(name).putShort((short) shortName.length).put(shortName);
+        long row = (long) chunk * chunkSize + position;
+        arenaEnd = row + length;
+        return row;
+    }
+
+    /**
+     * Copies live records to new chunks in slot order, old chunks are freed with their buffers.
+     */
+    private void compact() {
+        List<ByteBuffer> old = new ArrayList<>(chunks);
+        chunks.clear();
+        arenaEnd = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (rows[slot] != DELETED) {
+                rows[slot] = append(field(old, rows[slot], false), field(old, rows[slot], true));
+            }
+        }
+    }
+
+    private Region region(int slot) {
+        long row = rows[slot];
+        return new Region(ids[slot],
+                new String(field(chunks, row, false), StandardCharsets.UTF_8),
+                new String(field(chunks, row, true), StandardCharsets.UTF_8));
+    }
+
+    private int recordLength(long row) {
+        ByteBuffer buffer = chunks.get((int) (row / chunkSize));
+        int position = (int) (row % chunkSize);
+        int nameLength = buffer.getShort(position) & MAX_FIELD_LENGTH;
+        return 4 + nameLength + (buffer.getShort(position + 2 + nameLength) & MAX_FIELD_LENGTH);
+    }
+
+    private byte[] field(List<ByteBuffer> arena, long row, boolean shortName) {
+        ByteBuffer buffer = arena.get((int) (row / chunkSize)).duplicate();
+        int position = fieldPosition(buffer, (int) (row % chunkSize), shortName);
+        byte[] bytes = new byte[buffer.getShort(position) & MAX_FIELD_LENGTH];
+        buffer.position(position + 2);
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private boolean fieldEquals(long row, boolean shortName, byte[] expected) {
+        ByteBuffer buffer = chunks.get((int) (row / chunkSize));
+        int position = fieldPosition(buffer, (int) (row % chunkSize), shortName);
+        if ((buffer.getShort(position) & MAX_FIELD_LENGTH) != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(position + 2 + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int fieldPosition(ByteBuffer buffer, int position, boolean shortName) {
+        return shortName ? position + 2 + (buffer.getShort(position) & MAX_FIELD_LENGTH) : position;
+    }
+
+    private static byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Value longer than " + MAX_FIELD_LENGTH + " bytes");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,166 @@
+package directories.storage;
+
+import directories.model.RegionNames;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills normalized keys of rows written before the @code{nameKey} and @code{shortNameKey} columns existed.
+ * Keys are computed by @code{RegionNames}, the database has no such function. The unique index of keys comes
+ * from schema.sql and is dropped only while existing rows are filled. Rows whose keys collide with a row of
+ * lower id differ only in case, whitespace or Unicode form and must be merged; until then they keep no
+ * @code{nameKey}, so normalized lookups skip them, and every startup logs them as an error.
+ */
+public final class RegionKeyBackfill {
+
+    private static final Logger LOGGER = LogManager.getLogger(RegionKeyBackfill.class);
+
+    private static final int BATCH_SIZE = 10000;
+    private static final int LOGGED_DUPLICATES = 100;
+
+    private RegionKeyBackfill() {}
+
+    /**
+     * @param dataSource database
+     * @return number of filled rows
+     */
+    public static int fill(DataSource dataSource) {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            widen(connection, "nameKey");
+            widen(connection, "shortNameKey");
+            int count = 0;
+            if (missingKeys(connection)) {
+                try (Statement drop = connection.createStatement()) {
+                    // filled keys may collide, the index is created again once duplicates are set aside
+                    drop.execute("DROP INDEX IF EXISTS UQ_REGIONS_KEYS");
+                }
+                count = fillKeys(connection);
+            }
+            if (count > 0) {
+                LOGGER.info("normalized keys filled for " + count + " regions in "
+                        + (System.nanoTime() - start) / 1000000 + " ms");
+            }
+            index(connection);
+            reportDuplicates(connection);
+            return count;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Normalized keys can't be filled", e);
+        }
+    }
+
+    /**
+     * Checks for rows without keys through the index of @code{shortNameKey}, so a filled directory isn't scanned.
+     * Duplicates set aside keep their @code{shortNameKey} and are not filled again.
+     */
+    private static boolean missingKeys(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT EXISTS(SELECT 1 FROM REGIONS WHERE shortNameKey IS NULL)")) {
+            rows.next();
+            return rows.getBoolean(1);
+        }
+    }
+
+    private static int fillKeys(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        int count = 0;
+        try (Statement select = connection.createStatement();
+             ResultSet rows = select.executeQuery(
+                     "SELECT id, name, shortName FROM REGIONS WHERE nameKey IS NULL OR shortNameKey IS NULL");
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE REGIONS SET nameKey = ?, shortNameKey = ? WHERE id = ?")) {
+            while (rows.next()) {
+                update.setString(1, RegionNames.key(rows.getString(2)));
+                update.setString(2, RegionNames.key(rows.getString(3)));
+                update.setLong(3, rows.getLong(1));
+                update.addBatch();
+                if (++count % BATCH_SIZE == 0) {
+                    update.executeBatch();
+                }
+            }
+            update.executeBatch();
+            connection.commit();
+            return count;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Widens key column created shorter than @code{RegionNames.MAX_KEY_LENGTH}.
+     */
+    private static void widen(Connection connection, String column) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("SELECT CHARACTER_MAXIMUM_LENGTH "
+                + "FROM INFORMATION_SCHEMA.COLUMNS WHERE UPPER(TABLE_NAME) = 'REGIONS' AND UPPER(COLUMN_NAME) = ?")) {
+            select.setString(1, column.toUpperCase());
+            try (ResultSet rows = select.executeQuery()) {
+                if (!rows.next() || rows.getLong(1) >= RegionNames.MAX_KEY_LENGTH) {
+                    return;
+                }
+            }
+        }
+        try (Statement alter = connection.createStatement()) {
+            alter.execute("ALTER TABLE REGIONS ALTER COLUMN " + column
+                    + " SET DATA TYPE VARCHAR(" + RegionNames.MAX_KEY_LENGTH + ")");
+        }
+        LOGGER.info("column " + column + " widened to " + RegionNames.MAX_KEY_LENGTH + " characters");
+    }
+
+    /**
+     * Creates unique index of keys when it is missing, after clearing @code{nameKey} of every row whose keys
+     * collide with a row of lower id. Also drops the non-unique index earlier versions kept while duplicates existed.
+     */
+    private static void index(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rows = statement.executeQuery(
+                    "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'UQ_REGIONS_KEYS'")) {
+                rows.next();
+                if (rows.getLong(1) > 0) {
+                    return;
+                }
+            }
+            int duplicates = statement.executeUpdate("UPDATE REGIONS r SET nameKey = NULL WHERE EXISTS("
+                    + "SELECT 1 FROM REGIONS o WHERE o.nameKey = r.nameKey AND o.shortNameKey = r.shortNameKey "
+                    + "AND o.id < r.id)");
+            if (duplicates > 0) {
+                LOGGER.error(duplicates + " regions have the normalized keys of a region with lower id "
+                        + "and are left without nameKey");
+            }
+            statement.execute("DROP INDEX IF EXISTS IDX_REGIONS_KEYS");
+            statement.execute("CREATE UNIQUE INDEX UQ_REGIONS_KEYS ON REGIONS(nameKey, shortNameKey)");
+        }
+    }
+
+    /**
+     * Logs rows left without @code{nameKey} through the leading column of the unique index of keys.
+     */
+    private static void reportDuplicates(Connection connection) throws SQLException {
+        List<String> ids = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "SELECT id FROM REGIONS WHERE nameKey IS NULL ORDER BY id LIMIT " + LOGGED_DUPLICATES)) {
+            while (rows.next()) {
+                ids.add(rows.getString(1));
+            }
+        }
+        if (!ids.isEmpty()) {
+            LOGGER.error("regions differing only in case, whitespace or Unicode form from a region with lower id "
+                    + "have to be merged, normalized lookups don't find them until then; ids"
+                    + (ids.size() == LOGGED_DUPLICATES ? " (first " + LOGGED_DUPLICATES + ")" : "")
+                    + ": " + String.join(",", ids));
+        }
+    }
+}
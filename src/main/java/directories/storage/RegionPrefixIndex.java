@@ -0,0 +1,104 @@
+package directories.storage;
+
+import directories.event.RegionChangeEvent;
+import directories.event.RegionResyncEvent;
+import directories.mapper.RegionMapper;
+import directories.model.Region;
+import directories.model.RegionNames;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted in-memory index of region names and short names for type-ahead search.
+ * Terms are compared by their normalized keys, see @code{RegionNames}, matches are ordered by term.
+ * Not created for the offheap engine, which keeps no copy of the directory on heap; suggestions then
+ * come from the indexed key columns of the database.
+ */
+@Component
+@ConditionalOnExpression("'${directories.read-engine:database}' != 'offheap'")
+public class RegionPrefixIndex {
+
+    private static final char SEPARATOR = '\u0000';
+
+    @Autowired
+    RegionMapper regionMapper;
+
+    // replaced as a whole on load, so suggestions never see a half-filled index
+    private volatile ConcurrentSkipListMap<String, Region> terms = new ConcurrentSkipListMap<>();
+
+    /**
+     * Loads all regions from database.
+     */
+    @PostConstruct
+    @EventListener(RegionResyncEvent.class)
+    public void init() {
+        load(regionMapper.findAllRegions());
+    }
+
+    /**
+     * Replaces content of index.
+     *
+     * @param regions all regions of directory
+     */
+    public synchronized void load(List<Region> regions) {
+        ConcurrentSkipListMap<String, Region> loaded = new ConcurrentSkipListMap<>();
+        for (Region region : regions) {
+            add(loaded, region);
+        }
+        terms = loaded;
+    }
+
+    /**
+     * Finds regions whose name or short name starts with prefix.
+     *
+     * @param prefix beginning of name or short name
+     * @param limit maximal number of regions
+     * @return regions ordered by matched term
+     */
+    public List<Region> suggest(String prefix, int limit) {
+        String key = RegionNames.key(prefix);
+        Map<Long, Region> found = new LinkedHashMap<>();
+        for (Map.Entry<String, Region> entry : terms.tailMap(key, true).entrySet()) {
+            if (found.size() >= limit || !entry.getKey().startsWith(key)) {
+                break;
+            }
+            found.putIfAbsent(entry.getValue().getId(), entry.getValue());
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    /**
+     * Replaces changed regions.
+     *
+     * @param event changed regions
+     */
+    @EventListener
+    public synchronized void onRegionChange(RegionChangeEvent event) {
+        for (Region region : event.getBefore()) {
+            terms.remove(key(region.getName(), region.getId()));
+            terms.remove(key(region.getShortName(), region.getId()));
+        }
+        for (Region region : event.getAfter()) {
+            add(terms, region);
+        }
+    }
+
+    private static void add(Map<String, Region> terms, Region region) {
+        Region copy = new Region(region.getId(), region.getName(), region.getShortName());
+        terms.put(key(region.getName(), region.getId()), copy);
+        terms.put(key(region.getShortName(), region.getId()), copy);
+    }
+
+    private static String key(String term, Long id) {
+        return RegionNames.key(term) + SEPARATOR + id;
+    }
+}
@@ -0,0 +1,39 @@
+package directories.storage;
+
+import directories.event.RegionChangeEvent;
+import directories.model.Region;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Source of region lookups used by @code{RegionService}.
+ * Return values follow @code{RegionMapper}: null or empty list when nothing is found.
+ */
+public interface RegionReadEngine {
+
+    Region findById(Long id);
+
+    /**
+     * Looks up several regions at once.
+     *
+     * @param ids indexes of regions
+     * @return found regions in any order, absent indexes are skipped
+     */
+    List<Region> findByIds(Collection<Long> ids);
+
+    List<Region> findAllRegions();
+
+    List<Region> findByName(String name);
+
+    List<Region> findByShortName(String shortName);
+
+    Region findByNameAndShortName(String name, String shortName);
+
+    /**
+     * Applies a committed change of the directory.
+     *
+     * @param event changed regions
+     */
+    void apply(RegionChangeEvent event);
+}
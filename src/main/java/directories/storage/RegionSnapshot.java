@@ -0,0 +1,123 @@
+package directories.storage;
+
+import directories.model.Region;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable copy of the whole REGIONS table with hash indexes on id, name, shortName and (name, shortName).
+ * Regions are kept in id order, the same order database returns them.
+ * Returned regions are shared between readers and must not be modified.
+ */
+public final class RegionSnapshot {
+
+    public static final RegionSnapshot EMPTY = of(List.of());
+
+    private final List<Region> regions;
+    private final Map<Long, Region> byId;
+    private final Map<String, List<Region>> byName;
+    private final Map<String, List<Region>> byShortName;
+    private final Map<String, Map<String, Region>> byNameAndShortName;
+
+    private RegionSnapshot(List<Region> regions) {
+        this.regions = Collections.unmodifiableList(regions);
+        this.byId = new HashMap<>(regions.size() * 2);
+        Map<String, List<Region>> names = new HashMap<>();
+        Map<String, List<Region>> shortNames = new HashMap<>();
+        this.byNameAndShortName = new HashMap<>();
+        for (Region region : regions) {
+            byId.put(region.getId(), region);
+            names.computeIfAbsent(region.getName(), key -> new ArrayList<>()).add(region);
+            shortNames.computeIfAbsent(region.getShortName(), key -> new ArrayList<>()).add(region);
+            byNameAndShortName.computeIfAbsent(region.getName(), key -> new HashMap<>())
+                    .putIfAbsent(region.getShortName(), region);
+        }
+        this.byName = freeze(names);
+        this.byShortName = freeze(shortNames);
+    }
+
+    /**
+     * Builds snapshot from table rows.
+     *
+     * @param regions rows of table
+     * @return snapshot
+     */
+    public static RegionSnapshot of(Collection<Region> regions) {
+        List<Region> copy = new ArrayList<>(regions.size());
+        for (Region region : regions) {
+            copy.add(copyOf(region));
+        }
+        copy.sort(Comparator.comparing(Region::getId));
+        return new RegionSnapshot(copy);
+    }
+
+    /**
+     * Builds next snapshot, this one stays unchanged.
+     *
+     * @param removed regions to remove, only ids are used
+     * @param added regions to insert or replace by id
+     * @return new snapshot
+     */
+    public RegionSnapshot apply(Collection<Region> removed, Collection<Region> added) {
+        Set<Long> replacedIds = new HashSet<>();
+        for (Region region : removed) {
+            replacedIds.add(region.getId());
+        }
+        for (Region region : added) {
+            replacedIds.add(region.getId());
+        }
+        List<Region> next = new ArrayList<>(regions.size() + added.size());
+        for (Region region : regions) {
+            if (!replacedIds.contains(region.getId())) {
+                next.add(region);
+            }
+        }
+        for (Region region : added) {
+            next.add(copyOf(region));
+        }
+        next.sort(Comparator.comparing(Region::getId));
+        return new RegionSnapshot(next);
+    }
+
+    public int size() {
+        return regions.size();
+    }
+
+    public Region findById(Long id) {
+        return byId.get(id);
+    }
+
+    public List<Region> findAllRegions() {
+        return regions;
+    }
+
+    public List<Region> findByName(String name) {
+        return byName.getOrDefault(name, List.of());
+    }
+
+    public List<Region> findByShortName(String shortName) {
+        return byShortName.getOrDefault(shortName, List.of());
+    }
+
+    public Region findByNameAndShortName(String name, String shortName) {
+        Map<String, Region> shortNames = byNameAndShortName.get(name);
+        return shortNames != null ? shortNames.get(shortName) : null;
+    }
+
+    private static Map<String, List<Region>> freeze(Map<String, List<Region>> index) {
+        index.replaceAll((key, list) -> Collections.unmodifiableList(list));
+        return index;
+    }
+
+    private static Region copyOf(Region region) {
+        return new Region(region.getId(), region.getName(), region.getShortName());
+    }
+}
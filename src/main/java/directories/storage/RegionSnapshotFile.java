@@ -0,0 +1,189 @@
+package directories.storage;
+
+import directories.model.Region;
+import directories.model.RegionNames;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+
+/**
+ * Binary copy of the regions table, written on shutdown and restored on boot into an empty database.
+ * File holds a header (magic number, format version) followed by rows: index as long, then name and
+ * shortname as UTF-8 bytes prefixed with their length as short. The file is read through a memory map,
+ * so restore costs one pass over mapped pages and one JDBC batch per 10000 rows.
+ */
+public final class RegionSnapshotFile {
+
+    private static final Logger LOGGER = LogManager.getLogger(RegionSnapshotFile.class);
+
+    private static final int MAGIC = 0x52474E53;
+    private static final int FORMAT_VERSION = 1;
+    private static final int BATCH_SIZE = 10000;
+
+    private RegionSnapshotFile() {}
+
+    /**
+     * Writes all regions of database into file. The file is replaced only when writing succeeds.
+     *
+     * @param dataSource database
+     * @param file snapshot file
+     * @return number of written regions
+     */
+    public static int dump(DataSource dataSource, Path file) {
+        long start = System.nanoTime();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            int count = 0;
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT id, name, shortName FROM REGIONS ORDER BY id");
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                while (rows.next()) {
+                    out.writeLong(rows.getLong(1));
+                    writeString(out, rows.getString(2));
+                    writeString(out, rows.getString(3));
+                    count++;
+                }
+            } catch (SQLException | IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.info("snapshot of " + count + " regions written to " + file + " in "
+                    + (System.nanoTime() - start) / 1000000 + " ms");
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Regions can't be read for snapshot", e);
+        }
+    }
+
+    /**
+     * Inserts regions of file into database keeping their indexes, when file exists and table is empty.
+     * Generator of indexes is moved past the largest restored one.
+     *
+     * @param dataSource database
+     * @param file snapshot file
+     * @return number of restored regions
+     */
+    public static int restore(DataSource dataSource, Path file) {
+        if (!Files.isRegularFile(file)) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            if (!isEmpty(connection)) {
+                LOGGER.info("database is not empty, snapshot " + file + " is not restored");
+                return 0;
+            }
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            int[] count = new int[1];
+            long[] maxId = new long[1];
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO REGIONS(id, name, shortName, nameKey, shortNameKey) VALUES (?, ?, ?, ?, ?)")) {
+                read(file, region -> {
+                    try {
+                        insert.setLong(1, region.getId());
+                        insert.setString(2, region.getName());
+                        insert.setString(3, region.getShortName());
+                        insert.setString(4, RegionNames.key(region.getName()));
+                        insert.setString(5, RegionNames.key(region.getShortName()));
+                        insert.addBatch();
+                        if (++count[0] % BATCH_SIZE == 0) {
+                            insert.executeBatch();
+                        }
+                        maxId[0] = Math.max(maxId[0], region.getId());
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Snapshot row can't be restored", e);
+                    }
+                });
+                insert.executeBatch();
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("ALTER TABLE REGIONS ALTER COLUMN id RESTART WITH " + (maxId[0] + 1));
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            LOGGER.info("snapshot of " + count[0] + " regions restored from " + file + " in "
+                    + (System.nanoTime() - start) / 1000000 + " ms");
+            return count[0];
+        } catch (SQLException e) {
+            throw new IllegalStateException("Snapshot " + file + " can't be restored", e);
+        }
+    }
+
+    /**
+     * Reads regions of file in stored order.
+     *
+     * @param file snapshot file
+     * @param consumer receiver of regions
+     */
+    public static void read(Path file, Consumer<Region> consumer) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Snapshot " + file + " is larger than 2 GB");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IllegalStateException("Unknown format of snapshot " + file);
+            }
+            while (buffer.hasRemaining()) {
+                long id = buffer.getLong();
+                String name = readString(buffer);
+                String shortName = readString(buffer);
+                consumer.accept(new Region(id, name, shortName));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        String value = StandardCharsets.UTF_8.decode(buffer.slice().limit(length)).toString();
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static boolean isEmpty(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT 1 FROM REGIONS LIMIT 1")) {
+            return !rows.next();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package directories.storage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+/**
+ * Writes @code{RegionSnapshotFile} on shutdown, before the database is closed.
+ */
+@Component
+@ConditionalOnProperty(name = "directories.snapshot-file.enabled", havingValue = "true")
+public class RegionSnapshotWriter {
+
+    @Autowired
+    DataSource dataSource;
+
+    @Value("${directories.snapshot-file.path:./data/regions.snapshot}")
+    private Path file;
+
+    @PreDestroy
+    public void write() {
+        RegionSnapshotFile.dump(dataSource, file);
+    }
+}
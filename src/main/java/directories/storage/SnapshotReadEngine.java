@@ -0,0 +1,93 @@
+package directories.storage;
+
+import directories.event.RegionChangeEvent;
+import directories.event.RegionResyncEvent;
+import directories.mapper.RegionMapper;
+import directories.model.Region;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read engine serving lookups from an in-memory @code{RegionSnapshot}.
+ * Reads take the current snapshot without locking, every change publishes a new snapshot.
+ * Changes are applied before caches are invalidated, so a lookup loaded after the invalidation
+ * never reads the old state.
+ */
+@Component
+@ConditionalOnProperty(name = "directories.read-engine", havingValue = "snapshot")
+public class SnapshotReadEngine implements RegionReadEngine {
+
+    private static final Logger LOGGER = LogManager.getLogger(SnapshotReadEngine.class);
+
+    @Autowired
+    RegionMapper regionMapper;
+
+    private volatile RegionSnapshot snapshot = RegionSnapshot.EMPTY;
+
+    /**
+     * Loads whole table into snapshot.
+     */
+    @PostConstruct
+    @EventListener(RegionResyncEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void reload() {
+        snapshot = RegionSnapshot.of(regionMapper.findAllRegions());
+        LOGGER.info("snapshot loaded with " + snapshot.size() + " regions");
+    }
+
+    @Override
+    public Region findById(Long id) {
+        return snapshot.findById(id);
+    }
+
+    @Override
+    public List<Region> findByIds(Collection<Long> ids) {
+        RegionSnapshot current = snapshot;
+        List<Region> regions = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Region region = current.findById(id);
+            if (region != null) {
+                regions.add(region);
+            }
+        }
+        return regions;
+    }
+
+    @Override
+    public List<Region> findAllRegions() {
+        return snapshot.findAllRegions();
+    }
+
+    @Override
+    public List<Region> findByName(String name) {
+        return snapshot.findByName(name);
+    }
+
+    @Override
+    public List<Region> findByShortName(String shortName) {
+        return snapshot.findByShortName(shortName);
+    }
+
+    @Override
+    public Region findByNameAndShortName(String name, String shortName) {
+        return snapshot.findByNameAndShortName(name, shortName);
+    }
+
+    @Override
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void apply(RegionChangeEvent event) {
+        snapshot = snapshot.apply(event.getBefore(), event.getAfter());
+    }
+}
@@ -1,5 +1,17 @@
 CREATE TABLE IF NOT EXISTS `REGIONS`(
 `id`          INTEGER PRIMARY KEY AUTO_INCREMENT,
 `name`       VARCHAR(100) NOT NULL,
-`shortName`      VARCHAR(100) NOT NULL
-);
\ No newline at end of file
+`shortName`      VARCHAR(100) NOT NULL,
+`nameKey`       VARCHAR(1800),
+`shortNameKey`      VARCHAR(1800),
+CONSTRAINT `UQ_REGIONS_NAME_SHORTNAME` UNIQUE (`name`, `shortName`)
+);
+-- lookups by name use the leading column of UQ_REGIONS_NAME_SHORTNAME
+CREATE INDEX IF NOT EXISTS `IDX_REGIONS_SHORTNAME` ON `REGIONS`(`shortName`);
+-- normalized keys, see RegionNames; databases created without them get the columns here and keys on startup
+-- by RegionKeyBackfill, which also widens key columns created as VARCHAR(400)
+ALTER TABLE `REGIONS` ADD COLUMN IF NOT EXISTS `nameKey` VARCHAR(1800);
+ALTER TABLE `REGIONS` ADD COLUMN IF NOT EXISTS `shortNameKey` VARCHAR(1800);
+-- regions differing only in case, whitespace or Unicode form are duplicates; normalized lookups by name use the leading column
+CREATE UNIQUE INDEX IF NOT EXISTS `UQ_REGIONS_KEYS` ON `REGIONS`(`nameKey`, `shortNameKey`);
+CREATE INDEX IF NOT EXISTS `IDX_REGIONS_SHORTNAMEKEY` ON `REGIONS`(`shortNameKey`);
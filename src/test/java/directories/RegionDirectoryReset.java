@@ -0,0 +1,28 @@
+package directories;
+
+import directories.event.RegionChangePublisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * This @code{RegionDirectoryReset} class empties the directory before a test, imported by tests sharing
+ * the database of the application context.
+ */
+@TestComponent
+public class RegionDirectoryReset {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RegionChangePublisher changePublisher;
+
+    /**
+     * Deletes all regions, restarts ids from 1 and resyncs caches and read engines.
+     */
+    public void clear() {
+        jdbcTemplate.execute("TRUNCATE TABLE REGIONS RESTART IDENTITY");
+        changePublisher.publishResync();
+    }
+}
@@ -0,0 +1,192 @@
+package directories.cache;
+
+import directories.RegionDirectoryReset;
+import directories.model.Region;
+import directories.model.RegionNames;
+import directories.model.Update;
+import directories.service.RegionService;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static directories.config.CachingConfig.*;
+
+/**
+ * This @code{RegionCacheInvalidatorTest} class tests that every write of @code{RegionService} evicts
+ * all cached lookups of the regions it changed, and that a value loaded before a change is not cached.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Import(RegionDirectoryReset.class)
+public class RegionCacheInvalidatorTest {
+
+    @Autowired
+    private RegionDirectoryReset directoryReset;
+
+    @Autowired
+    private RegionService regionService;
+
+    @Autowired
+    private RegionCacheInvalidator cacheInvalidator;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Region alpha;
+    private Region beta;
+    private Region gamma;
+
+    /**
+     * Starts every test with three regions sharing names and short names, all their lookups cached.
+     */
+    @Before
+    public void warm() {
+        directoryReset.clear();
+        alpha = regionService.add(new Region(null, "Alpha", "AL"));
+        beta = regionService.add(new Region(null, "Beta", "AL"));
+        gamma = regionService.add(new Region(null, "Alpha", "GA"));
+        for (Region region : List.of(alpha, beta, gamma)) {
+            regionService.findRegion(region.getId());
+            regionService.findByName(region.getName());
+            regionService.findByShortName(region.getShortName());
+            regionService.findByNameAndShortName(region.getName(), region.getShortName());
+            regionService.findByNameNormalized(region.getName());
+            regionService.findByShortNameNormalized(region.getShortName());
+            regionService.findByNameAndShortNameNormalized(region.getName(), region.getShortName());
+            for (Object[] entry : entries(region)) {
+                Assert.assertNotNull(entry[0] + " " + entry[1], cacheManager.getCache((String) entry[0]).get(entry[1]));
+            }
+        }
+        regionService.findAllRegions();
+    }
+
+    @Test
+    public void TestAdd() {
+        Region added = regionService.add(new Region(null, "Alpha", "DE"));
+        assertEvicted(added);
+        Assert.assertEquals(3, regionService.findByName("Alpha").size());
+    }
+
+    @Test
+    public void TestAddBatch() {
+        Region added = regionService.addBatch(List.of(new Region(null, "Beta", "GA"))).get(0).getRegion();
+        assertEvicted(added);
+        Assert.assertEquals(2, regionService.findByShortNameNormalized("ga").size());
+    }
+
+    @Test
+    public void TestUpdateRegion() {
+        Region updated = regionService.updateRegion(new Region(alpha.getId(), "Delta", "DE"));
+        assertEvicted(alpha, updated);
+        Assert.assertEquals("Delta", regionService.findRegion(alpha.getId()).getName());
+    }
+
+    @Test
+    public void TestUpdateNameRegion() {
+        Region updated = regionService.updateNameRegion(new Region(alpha.getId(), "Delta", null));
+        assertEvicted(alpha, updated);
+        Assert.assertEquals(1, regionService.findByName("Alpha").size());
+    }
+
+    @Test
+    public void TestUpdateShortNameRegion() {
+        Region updated = regionService.updateShortNameRegion(new Region(alpha.getId(), null, "DE"));
+        assertEvicted(alpha, updated);
+        Assert.assertEquals(1, regionService.findByShortName("AL").size());
+    }
+
+    @Test
+    public void TestUpdateNameRegionByName() {
+        List<Region> updated = regionService.updateNameRegionByName(update("Alpha", "Omega"));
+        assertEvicted(alpha, gamma, updated.get(0), updated.get(1));
+        Assert.assertEquals("Omega", regionService.findByNameAndShortName("Omega", "GA").getName());
+    }
+
+    @Test
+    public void TestUpdateShortNameRegionByShortName() {
+        List<Region> updated = regionService.updateShortNameRegionByShortName(update("AL", "OM"));
+        assertEvicted(alpha, beta, updated.get(0), updated.get(1));
+        Assert.assertEquals(2, regionService.findByShortNameNormalized("om").size());
+    }
+
+    @Test
+    public void TestDeleteRegionById() {
+        regionService.deleteRegionById(beta.getId());
+        assertEvicted(beta);
+        Assert.assertEquals(2, regionService.findAllRegions().size());
+    }
+
+    @Test
+    public void TestDeleteRegionByName() {
+        regionService.deleteRegionByName("Alpha");
+        assertEvicted(alpha, gamma);
+        Assert.assertEquals(1, regionService.findByShortName("AL").size());
+    }
+
+    @Test
+    public void TestDeleteRegionByShortName() {
+        regionService.deleteRegionByShortName("AL");
+        assertEvicted(alpha, beta);
+        Assert.assertEquals(1, regionService.findByNameNormalized("alpha").size());
+    }
+
+    @Test
+    public void TestDeleteRegionByNameAndShortName() {
+        regionService.deleteRegionByNameAndShortName("Alpha", "GA");
+        assertEvicted(gamma);
+        Assert.assertEquals(1, regionService.findByName("Alpha").size());
+    }
+
+    @Test
+    public void TestPutAfterChangeIsDropped() {
+        long generation = cacheInvalidator.generation();
+        Region stale = regionService.findRegion(alpha.getId());
+        regionService.updateNameRegion(new Region(alpha.getId(), "Delta", null));
+        cacheInvalidator.put(FIND_BY_ID, alpha.getId(), stale, generation);
+        Assert.assertNull(cacheManager.getCache(FIND_BY_ID).get(alpha.getId()));
+        Assert.assertEquals("Delta", regionService.findRegion(alpha.getId()).getName());
+    }
+
+    private void assertEvicted(Region... regions) {
+        for (Region region : regions) {
+            for (Object[] entry : entries(region)) {
+                Assert.assertNull(entry[0] + " " + entry[1], cacheManager.getCache((String) entry[0]).get(entry[1]));
+            }
+        }
+        Assert.assertNull(cacheManager.getCache(FIND_ALL_REGIONS).get(SimpleKey.EMPTY));
+    }
+
+    /**
+     * @return cache name and key of every lookup of region
+     */
+    private static Object[][] entries(Region region) {
+        String nameKey = RegionNames.key(region.getName());
+        String shortNameKey = RegionNames.key(region.getShortName());
+        return new Object[][] {
+                {FIND_BY_ID, region.getId()},
+                {FIND_BY_NAME, region.getName()},
+                {FIND_BY_SHORT_NAME, region.getShortName()},
+                {FIND_BY_NAME_AND_SHORT_NAME, Arrays.asList(region.getName(), region.getShortName())},
+                {FIND_BY_NAME_KEY, nameKey},
+                {FIND_BY_SHORT_NAME_KEY, shortNameKey},
+                {FIND_BY_NAME_AND_SHORT_NAME_KEY, Arrays.asList(nameKey, shortNameKey)}
+        };
+    }
+
+    private static Update update(String lastName, String newName) {
+        Update update = new Update();
+        update.setLastName(lastName);
+        update.setNewName(newName);
+        return update;
+    }
+}
@@ -0,0 +1,85 @@
+package directories.cache;
+
+import directories.exception.ResponseException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This @code{SingleFlightTest} class tests @code{SingleFlight} class.
+ */
+public class SingleFlightTest {
+
+    @Test
+    public void TestCoalescing() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AtomicLong generation = new AtomicLong();
+        SingleFlight<Long, String> flight = new SingleFlight<>("findById", generation::get, registry);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> flight.load(1L, () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return "Region1";
+                })));
+            }
+            while (registry.counter("region.lookup.coalesced", "lookup", "findById").count() < 3) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                Assert.assertEquals("Region1", result.get());
+            }
+            Assert.assertEquals(1, calls.get());
+            Assert.assertEquals(1.0, registry.counter("region.lookup.loads", "lookup", "findById").count(), 0);
+
+            CountDownLatch failing = new CountDownLatch(1);
+            Future<String> leader = executor.submit(() -> flight.load(2L, () -> {
+                await(failing);
+                throw new ResponseException("No such region");
+            }));
+            while (registry.counter("region.lookup.loads", "lookup", "findById").count() < 2) {
+                Thread.sleep(1);
+            }
+            Future<String> follower = executor.submit(() -> flight.load(2L, () -> "unexpected"));
+            while (registry.counter("region.lookup.coalesced", "lookup", "findById").count() < 4) {
+                Thread.sleep(1);
+            }
+            failing.countDown();
+            Assert.assertThrows(Exception.class, leader::get);
+            try {
+                follower.get();
+                Assert.fail();
+            } catch (Exception e) {
+                Assert.assertTrue(e.getCause() instanceof ResponseException);
+            }
+
+            generation.incrementAndGet();
+            Assert.assertEquals("Region1", flight.load(1L, () -> "Region1"));
+            Assert.assertEquals(3.0, registry.counter("region.lookup.loads", "lookup", "findById").count(), 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
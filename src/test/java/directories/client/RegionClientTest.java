@@ -0,0 +1,113 @@
+package directories.client;
+
+import directories.RegionDirectoryReset;
+import directories.exception.ResponseException;
+import directories.model.Region;
+import directories.service.RegionService;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * This @code{RegionClientTest} class tests @code{RegionClient} class and content negotiation
+ * of the region API over HTTP.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(RegionDirectoryReset.class)
+public class RegionClientTest {
+
+    private static final String CBOR = "application/cbor";
+    private static final String JSON = "application/json";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private RegionDirectoryReset directoryReset;
+
+    @Autowired
+    private RegionService regionService;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private RegionClient client;
+    private Region region;
+
+    @Before
+    public void clean() {
+        directoryReset.clear();
+        region = regionService.add(new Region(null, "Region1", "R1"));
+        regionService.add(new Region(null, "Region2", "R2"));
+        client = new RegionClient(httpClient, URI.create("http://localhost:" + port));
+    }
+
+    @Test
+    public void TestClientDecodesCbor() {
+        Assert.assertEquals("Region1", client.getRegion(region.getId()).getName());
+        Assert.assertEquals(2, client.getRegions().size());
+        Assert.assertEquals("R2", client.getRegionsByName("Region2").get(0).getShortName());
+        Assert.assertEquals(region.getId(), client.getRegionsByShortName("R1").get(0).getId());
+        Assert.assertEquals(region.getId(), client.getRegionByNameAndShortName("Region1", "R1").getId());
+
+        ResponseException e = Assert.assertThrows(ResponseException.class, () -> client.getRegion(100L));
+        Assert.assertEquals("No such region", e.getMessage());
+    }
+
+    @Test
+    public void TestNegotiation() throws Exception {
+        HttpResponse<byte[]> json = get("/region/get", JSON, null);
+        HttpResponse<byte[]> cbor = get("/region/get", CBOR, null);
+        String jsonTag = json.headers().firstValue("ETag").orElseThrow();
+        String cborTag = cbor.headers().firstValue("ETag").orElseThrow();
+
+        Assert.assertEquals(JSON, json.headers().firstValue("Content-Type").orElseThrow());
+        Assert.assertEquals(CBOR, cbor.headers().firstValue("Content-Type").orElseThrow());
+        Assert.assertTrue(cbor.headers().allValues("Vary").contains("Accept"));
+        Assert.assertEquals(jsonTag.substring(0, jsonTag.length() - 1) + "-cbor\"", cborTag);
+        Assert.assertEquals(cborTag, get("/region/get", "application/json;q=0.5, application/cbor", null)
+                .headers().firstValue("ETag").orElseThrow());
+        Assert.assertEquals(jsonTag, get("/region/get", "*/*", null).headers().firstValue("ETag").orElseThrow());
+
+        Assert.assertEquals(200, get("/region/get", CBOR, jsonTag).statusCode());
+        Assert.assertEquals(304, get("/region/get", CBOR, cborTag).statusCode());
+        Assert.assertEquals(304, get("/region/get", JSON, jsonTag).statusCode());
+    }
+
+    @Test
+    public void TestErrorIsPlainText() throws Exception {
+        HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/region/get"))
+                        .header("Accept", CBOR)
+                        .header("Content-Type", JSON)
+                        .method("GET", HttpRequest.BodyPublishers.ofString("100"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        Assert.assertEquals(502, response.statusCode());
+        Assert.assertEquals("text/plain;charset=UTF-8", response.headers().firstValue("Content-Type").orElseThrow());
+        Assert.assertEquals("No such region", new String(response.body(), StandardCharsets.UTF_8));
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", accept)
+                .header("Content-Type", JSON)
+                .method("GET", HttpRequest.BodyPublishers.ofString(String.valueOf(region.getId())));
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,88 @@
+package directories.controller;
+
+import directories.RegionDirectoryReset;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import directories.config.CachingConfig;
+import directories.model.Region;
+import directories.service.RegionService;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This @code{RegionControllerOffHeapTest} class tests @code{RegionController} class over the offheap read engine.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "directories.read-engine=offheap")
+@Import(RegionDirectoryReset.class)
+@AutoConfigureMockMvc
+public class RegionControllerOffHeapTest {
+
+    @Autowired
+    private RegionDirectoryReset directoryReset;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RegionService regionService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Before
+    public void clean() {
+        directoryReset.clear();
+        regionService.add(new Region(null, "Region1", "R1"));
+        regionService.add(new Region(null, "Region2", "R2"));
+    }
+
+    @Test
+    public void TestGetAllCbor() throws Exception {
+        byte[] body = mockMvc.perform(get("/region/get_all").header(HttpHeaders.ACCEPT, MediaType.APPLICATION_CBOR_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+        Region[] regions = cborMapper.readValue(body, Region[].class);
+        Assert.assertEquals(2, regions.length);
+        Assert.assertEquals("Region1", regions[0].getName());
+        Assert.assertEquals("R2", regions[1].getShortName());
+        Assert.assertNull(cacheManager.getCache(CachingConfig.FIND_ALL_REGIONS).get(SimpleKey.EMPTY));
+    }
+
+    @Test
+    public void TestGetAllJson() throws Exception {
+        mockMvc.perform(get("/region/get_all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].name").value("Region2"));
+        Assert.assertNull(cacheManager.getCache(CachingConfig.FIND_ALL_REGIONS).get(SimpleKey.EMPTY));
+    }
+
+    @Test
+    public void TestLookupWithoutShortName() throws Exception {
+        mockMvc.perform(get("/region/get_by_name_and_shortname")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"Region1\"}"))
+                .andExpect(status().isBadGateway())
+                .andExpect(content().string("No such region"));
+    }
+}
@@ -0,0 +1,211 @@
+package directories.controller;
+
+import directories.RegionDirectoryReset;
+import com.jayway.jsonpath.JsonPath;
+import directories.event.RegionChangePublisher;
+import directories.model.Region;
+import directories.model.Update;
+import directories.service.RegionService;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This @code{RegionControllerTest} class tests conditional and encoded responses and the change feed
+ * of @code{RegionController} class.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Import(RegionDirectoryReset.class)
+@AutoConfigureMockMvc
+public class RegionControllerTest {
+
+    @Autowired
+    private RegionDirectoryReset directoryReset;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RegionService regionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RegionChangePublisher changePublisher;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Region region1;
+    private Region region2;
+
+    @Before
+    public void clean() {
+        directoryReset.clear();
+        region1 = regionService.add(new Region(null, "Region1", "R1"));
+        region2 = regionService.add(new Region(null, "Region2", "R2"));
+    }
+
+    @Test
+    public void TestRegionNotModified() throws Exception {
+        String etag = getRegion(region1.getId(), null)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Region1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        regionService.updateNameRegion(new Region(region2.getId(), "Region22", null));
+        getRegion(region1.getId(), etag).andExpect(status().isNotModified());
+
+        regionService.updateNameRegion(new Region(region1.getId(), "Region11", null));
+        etag = getRegion(region1.getId(), etag)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Region11"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // the row is gone behind the service's back, so only a response that never reads it is 304
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        jdbcTemplate.update("DELETE FROM REGIONS WHERE id = ?", region1.getId());
+        getRegion(region1.getId(), etag)
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void TestDirectoryNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/region/get_all").accept("application/json"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/region/get_by_name").accept("application/json").contentType("text/plain")
+                        .content("Region1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/region/get_all").accept("application/json").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        regionService.deleteRegionById(region2.getId());
+        mockMvc.perform(get("/region/get_all").accept("application/json").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    public void TestGzipHasOwnETag() throws Exception {
+        String plain = mockMvc.perform(get("/region/get_all").accept("application/json"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String gzip = mockMvc.perform(get("/region/get_all").accept("application/json")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Assert.assertEquals(plain.substring(0, plain.length() - 1) + "-gz\"", gzip);
+
+        mockMvc.perform(get("/region/get_all").accept("application/json")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, plain))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/region/get_all").accept("application/json")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, gzip))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+        mockMvc.perform(get("/region/get_all").accept("application/json").header(HttpHeaders.IF_NONE_MATCH, gzip))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void TestChanges() throws Exception {
+        MvcResult start = changes(null, null).andExpect(jsonPath("$.resync").value(true)).andReturn();
+        String epoch = JsonPath.read(start.getResponse().getContentAsString(), "$.epoch");
+        long since = ((Number) JsonPath.read(start.getResponse().getContentAsString(), "$.lastSequence")).longValue();
+
+        Region region3 = regionService.add(new Region(null, "Region3", "R3"));
+        regionService.updateShortNameRegionByShortName(update("R1", "R11"));
+        regionService.deleteRegionById(region2.getId());
+
+        changes(since, epoch)
+                .andExpect(jsonPath("$.resync").value(false))
+                .andExpect(jsonPath("$.lastSequence").value(since + 3))
+                .andExpect(jsonPath("$.changes.length()").value(3))
+                .andExpect(jsonPath("$.changes[0].type").value("UPSERT"))
+                .andExpect(jsonPath("$.changes[0].id").value(region3.getId()))
+                .andExpect(jsonPath("$.changes[1].shortName").value("R11"))
+                .andExpect(jsonPath("$.changes[1].sequence").value(since + 2))
+                .andExpect(jsonPath("$.changes[2].type").value("DELETE"))
+                .andExpect(jsonPath("$.changes[2].id").value(region2.getId()));
+        changes(since + 3, epoch)
+                .andExpect(jsonPath("$.resync").value(false))
+                .andExpect(jsonPath("$.changes.length()").value(0));
+
+        changes(since, "stale").andExpect(jsonPath("$.resync").value(true));
+        changes(since + 4, epoch).andExpect(jsonPath("$.resync").value(true));
+        changePublisher.publishResync();
+        changes(since + 3, null).andExpect(jsonPath("$.resync").value(true));
+    }
+
+    @Test
+    public void TestChangesLongPoll() throws Exception {
+        MvcResult start = changes(null, null).andReturn();
+        long since = ((Number) JsonPath.read(start.getResponse().getContentAsString(), "$.lastSequence")).longValue();
+
+        MvcResult poll = mockMvc.perform(get("/region/changes").param("since", String.valueOf(since)).param("wait", "10000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        Assert.assertThrows(IllegalStateException.class, () -> poll.getAsyncResult(100));
+
+        regionService.add(new Region(null, "Region3", "R3"));
+        mockMvc.perform(asyncDispatch(poll))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastSequence").value(since + 1))
+                .andExpect(jsonPath("$.changes[0].name").value("Region3"));
+    }
+
+    private ResultActions getRegion(Long id, String ifNoneMatch) throws Exception {
+        MockHttpServletRequestBuilder request = get("/region/get").accept("application/json")
+                .contentType("application/json").content(String.valueOf(id));
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mockMvc.perform(request);
+    }
+
+    private ResultActions changes(Long since, String epoch) throws Exception {
+        MockHttpServletRequestBuilder request = get("/region/changes");
+        if (since != null) {
+            request.param("since", String.valueOf(since));
+        }
+        if (epoch != null) {
+            request.param("epoch", epoch);
+        }
+        return mockMvc.perform(asyncDispatch(mockMvc.perform(request).andReturn())).andExpect(status().isOk());
+    }
+
+    private static Update update(String lastName, String newName) {
+        Update update = new Update();
+        update.setLastName(lastName);
+        update.setNewName(newName);
+        return update;
+    }
+}
@@ -0,0 +1,57 @@
+package directories.event;
+
+import directories.model.Region;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This @code{DirectoryVersionTest} class tests @code{DirectoryVersion} class.
+ */
+public class DirectoryVersionTest {
+
+    private final DirectoryVersion directoryVersion = new DirectoryVersion(10);
+
+    @Test
+    public void TestDeleteDropsRow() {
+        Region region1 = new Region(1L, "Region1", "R1");
+        advance(RegionChangeEvent.inserted(region1));
+        advance(RegionChangeEvent.inserted(new Region(2L, "Region2", "R2")));
+        String etag = directoryVersion.etag(1L);
+        String untouched = directoryVersion.etag(3L);
+
+        advance(RegionChangeEvent.deleted(List.of(region1)));
+
+        Assert.assertEquals(1, directoryVersion.rowVersionsSize());
+        Assert.assertNotEquals(etag, directoryVersion.etag(1L));
+        Assert.assertNotEquals(untouched, directoryVersion.etag(1L));
+    }
+
+    @Test
+    public void TestEvictedRowsNeverRepeatTags() {
+        List<String> etags = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            etags.add(directoryVersion.etag(id));
+            advance(RegionChangeEvent.inserted(new Region(id, "Region" + id, "R" + id)));
+        }
+        Assert.assertTrue(directoryVersion.rowVersionsSize() <= 10);
+        for (long id = 1; id <= 100; id++) {
+            Assert.assertNotEquals(etags.get((int) id - 1), directoryVersion.etag(id));
+        }
+    }
+
+    @Test
+    public void TestUnchangedRowKeepsTag() {
+        String etag = directoryVersion.etag(1L);
+        advance(RegionChangeEvent.inserted(new Region(2L, "Region2", "R2")));
+        advance(RegionChangeEvent.updated(new Region(2L, "Region2", "R2"), new Region(2L, "Region22", "R2")));
+        Assert.assertEquals(etag, directoryVersion.etag(1L));
+    }
+
+    private void advance(RegionChangeEvent event) {
+        event.setVersion(directoryVersion.get() + 1);
+        directoryVersion.advance(event);
+    }
+}
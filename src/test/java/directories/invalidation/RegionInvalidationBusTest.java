@@ -0,0 +1,165 @@
+package directories.invalidation;
+
+import directories.Application;
+import directories.event.DirectoryVersion;
+import directories.model.Region;
+import directories.service.RegionService;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * This @code{RegionInvalidationBusTest} class tests @code{RegionInvalidationBus} class with two nodes
+ * sharing one database, connected by a transport that can lose messages.
+ */
+public class RegionInvalidationBusTest {
+
+    private static final LinkTransport LINK_A = new LinkTransport();
+    private static final LinkTransport LINK_B = new LinkTransport();
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeClass
+    public static void start() {
+        LINK_A.peer = LINK_B;
+        LINK_B.peer = LINK_A;
+        nodeA = node(LINK_A);
+        nodeB = node(LINK_B);
+    }
+
+    @AfterClass
+    public static void stop() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    public void TestChangeIsApplied() throws InterruptedException {
+        Region region = add("BusRegion1", "BR1");
+        Assert.assertEquals("BusRegion1", service(nodeB).findRegion(region.getId()).getName());
+
+        rename(region, "BusRegion11");
+        await(() -> "BusRegion11".equals(service(nodeB).findRegion(region.getId()).getName()));
+    }
+
+    @Test
+    public void TestLostChangeIsDetected() throws InterruptedException {
+        Region region = add("BusRegion2", "BR2");
+        Assert.assertEquals("BusRegion2", service(nodeB).findRegion(region.getId()).getName());
+        String epoch = version(nodeB).getEpoch();
+
+        int lost = LINK_A.lostChanges.get();
+        LINK_A.losing = true;
+        rename(region, "BusRegion22");
+        await(() -> LINK_A.lostChanges.get() > lost);
+        Assert.assertEquals("BusRegion2", service(nodeB).findRegion(region.getId()).getName());
+
+        LINK_A.losing = false;
+        await(() -> "BusRegion22".equals(service(nodeB).findRegion(region.getId()).getName()));
+        Assert.assertNotEquals(epoch, version(nodeB).getEpoch());
+    }
+
+    @Test
+    public void TestLargeChangeAsksForResync() throws InterruptedException {
+        Region region = add("BusRegion3", "BR3");
+        Assert.assertEquals("BusRegion3", service(nodeB).findRegion(region.getId()).getName());
+        String epoch = version(nodeB).getEpoch();
+
+        LINK_A.maxMessageSize = 10;
+        try {
+            rename(region, "BusRegion33");
+            await(() -> !epoch.equals(version(nodeB).getEpoch()));
+        } finally {
+            LINK_A.maxMessageSize = 65000;
+        }
+        Assert.assertEquals("BusRegion33", service(nodeB).findRegion(region.getId()).getName());
+    }
+
+    /**
+     * Adds region on node A and waits until node B has applied the change.
+     */
+    private static Region add(String name, String shortName) throws InterruptedException {
+        long version = version(nodeB).get();
+        Region region = service(nodeA).add(new Region(null, name, shortName));
+        await(() -> version(nodeB).get() > version);
+        return region;
+    }
+
+    private static void rename(Region region, String name) {
+        service(nodeA).updateNameRegion(new Region(region.getId(), name, region.getShortName()));
+    }
+
+    private static RegionService service(ConfigurableApplicationContext node) {
+        return node.getBean(RegionService.class);
+    }
+
+    private static DirectoryVersion version(ConfigurableApplicationContext node) {
+        return node.getBean(DirectoryVersion.class);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                Assert.fail("Condition not met in 5 s");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static ConfigurableApplicationContext node(LinkTransport transport) {
+        return new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .initializers(context -> context.getBeanFactory().registerSingleton("invalidationTransport", transport))
+                .run("--directories.invalidation.enabled=true",
+                        "--directories.invalidation.transport=link",
+                        "--directories.invalidation.heartbeat-interval=100ms",
+                        "--directories.cache.warm-up=false");
+    }
+
+    /**
+     * Transport delivering messages directly to the peer's receiver, losing them while @code{losing} is set.
+     * Lost changes are counted, so a test knows when its change has been sent.
+     */
+    private static class LinkTransport implements InvalidationTransport {
+
+        private volatile LinkTransport peer;
+        private volatile Consumer<byte[]> receiver;
+        private volatile boolean losing;
+        private volatile int maxMessageSize = 65000;
+        private final AtomicInteger lostChanges = new AtomicInteger();
+
+        @Override
+        public void send(byte[] message) {
+            Consumer<byte[]> peerReceiver = peer.receiver;
+            if (losing) {
+                if (new String(message, StandardCharsets.UTF_8).contains("\"CHANGE\"")) {
+                    lostChanges.incrementAndGet();
+                }
+            }
+            else if (peerReceiver != null) {
+                peerReceiver.accept(message);
+            }
+        }
+
+        @Override
+        public void listen(Consumer<byte[]> receiver) {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public int maxMessageSize() {
+            return maxMessageSize;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package directories.service;
+
+import directories.model.Region;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * This @code{RegionCsvTest} class tests @code{RegionCsv} class.
+ */
+public class RegionCsvTest {
+
+    @Test
+    public void TestRoundTrip() {
+        Region region = new Region(7L, "Saint \"Petersburg\", city", "SPB");
+        String line = RegionCsv.format(region);
+        Assert.assertEquals("7,\"Saint \"\"Petersburg\"\", city\",SPB", line);
+
+        Region parsed = RegionCsv.parse(line);
+        Assert.assertNull(parsed.getId());
+        Assert.assertEquals(region.getName(), parsed.getName());
+        Assert.assertEquals(region.getShortName(), parsed.getShortName());
+
+        Region shortLayout = RegionCsv.parse("Moscow,MSK");
+        Assert.assertEquals("Moscow", shortLayout.getName());
+        Assert.assertEquals("MSK", shortLayout.getShortName());
+
+        Assert.assertNull(RegionCsv.parse("Moscow"));
+        Assert.assertNull(RegionCsv.parse("\"Moscow,MSK"));
+        Assert.assertTrue(RegionCsv.isHeader("id,name,shortName"));
+        Assert.assertTrue(RegionCsv.isHeader("name,shortname"));
+    }
+
+    @Test
+    public void TestMultiLineRecord() throws IOException {
+        Region region = new Region(8L, "North\nWest", "NW");
+        BufferedReader reader = new BufferedReader(new StringReader(RegionCsv.format(region) + "\r\n"
+                + "\"Open,OP\n" + "x".repeat(5000) + "\n" + "Moscow,MSK\n"));
+
+        Region parsed = RegionCsv.parse(RegionCsv.readRecord(reader));
+        Assert.assertEquals("North\nWest", parsed.getName());
+        Assert.assertEquals("NW", parsed.getShortName());
+        Assert.assertNull(RegionCsv.parse(RegionCsv.readRecord(reader)));
+        Assert.assertEquals("Moscow", RegionCsv.parse(RegionCsv.readRecord(reader)).getName());
+        Assert.assertNull(RegionCsv.readRecord(reader));
+    }
+}
@@ -0,0 +1,87 @@
+package directories.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This @code{RegionLocksTest} class tests @code{RegionLocks} class.
+ */
+public class RegionLocksTest {
+
+    private final RegionLocks regionLocks = new RegionLocks(64);
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @Test
+    public void TestOppositeOrderDoesNotDeadlock() throws Exception {
+        Object first = 1L;
+        Object second = RegionLocks.key("Region1", "R1");
+        List<Future<?>> writers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Object[] keys = i % 2 == 0 ? new Object[] {first, second} : new Object[] {second, first};
+            writers.add(executor.submit(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    regionLocks.withRegions(() -> {
+                        Thread.yield();
+                        return null;
+                    }, keys);
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void TestSameKeyIsSerialized() throws Exception {
+        int[] counter = new int[1];
+        List<Future<?>> writers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Object[] keys = i % 2 == 0 ? new Object[] {1L} : new Object[] {2L, 1L};
+            writers.add(executor.submit(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    regionLocks.withRegions(() -> counter[0]++, keys);
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        Assert.assertEquals(80000, counter[0]);
+    }
+
+    @Test
+    public void TestDirectoryWaitsForRegions() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> region = executor.submit(() -> regionLocks.withRegions(() -> {
+            locked.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }, 1L));
+        locked.await();
+
+        Assert.assertTrue(executor.submit(() -> regionLocks.withRegions(() -> true, 2L)).get(10, TimeUnit.SECONDS));
+        Future<Boolean> directory = executor.submit(() -> regionLocks.withDirectory(() -> true));
+        Assert.assertThrows(TimeoutException.class, () -> directory.get(200, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        region.get(10, TimeUnit.SECONDS);
+        Assert.assertTrue(directory.get(10, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+}
@@ -1,22 +1,37 @@
 package directories.service;
 
+import directories.RegionDirectoryReset;
+import directories.exception.InvalidRegionException;
+import directories.exception.NotFoundException;
 import directories.exception.ResponseException;
 import directories.model.Region;
+import directories.model.RegionBatchItem;
+import directories.model.RegionLookup;
 import directories.model.Update;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This @code{ARegionServiceIntegrationTest} class tests @code{RegionService} class.
  */
 @RunWith(SpringRunner.class)
 @SpringBootTest
+@Import(RegionDirectoryReset.class)
 public class RegionServiceIntegrationTest {
 
     private static final String EMPTY_RESPONSE = "Directory is empty";
@@ -26,9 +41,20 @@ public class RegionServiceIntegrationTest {
 
     private static final String SUCCESSFULLY_DELETE = "Region successfully deleted";
 
+    @Autowired
+    private RegionDirectoryReset directoryReset;
+
     @Autowired
     private RegionService regionService;
 
+    /**
+     * Context and its database are shared by all tests, every test starts with an empty directory numbered from 1.
+     */
+    @Before
+    public void clean() {
+        directoryReset.clear();
+    }
+
     @Test
     public void TestAll() {
 
@@ -237,4 +263,145 @@ public class RegionServiceIntegrationTest {
 
         Assert.assertThrows(EMPTY_RESPONSE, ResponseException.class, ()-> regionService.findAllRegions());
     }
+
+    @Test
+    public void TestAddBatch() {
+        regionService.add(new Region(null, "Region8", "R8"));
+        List<RegionBatchItem> batch = regionService.addBatch(List.of(new Region(null, "Region8", "R8"),
+                new Region(null, "Region9", "R9"), new Region(null, "Region9", "R9"), new Region(null, "Region10", "R10")));
+        Assert.assertEquals(4, batch.size());
+        Assert.assertEquals(RegionBatchItem.Status.DUPLICATE, batch.get(0).getStatus());
+        Assert.assertEquals(RegionBatchItem.Status.CREATED, batch.get(1).getStatus());
+        Assert.assertEquals(RegionBatchItem.Status.DUPLICATE, batch.get(2).getStatus());
+        Assert.assertEquals(RegionBatchItem.Status.CREATED, batch.get(3).getStatus());
+        Assert.assertNotNull(batch.get(1).getRegion().getId());
+        Assert.assertEquals(batch.get(3).getRegion().getId(), regionService.findByName("Region10").get(0).getId());
+        Assert.assertEquals(3, regionService.findAllRegions().size());
+    }
+
+    @Test
+    public void TestFindRegions() {
+        Long id9 = regionService.add(new Region(null, "Region9", "R9")).getId();
+        Long id10 = regionService.add(new Region(null, "Region10", "R10")).getId();
+        regionService.findRegion(id10);
+        List<RegionLookup> lookups = regionService.findRegions(List.of(id10, -1L, id9, id10));
+        Assert.assertEquals(4, lookups.size());
+        Assert.assertEquals("Region10", lookups.get(0).getRegion().getName());
+        Assert.assertFalse(lookups.get(1).isFound());
+        Assert.assertEquals(Long.valueOf(-1L), lookups.get(1).getId());
+        Assert.assertEquals("Region9", lookups.get(2).getRegion().getName());
+        Assert.assertEquals(id10, lookups.get(3).getRegion().getId());
+        Assert.assertThrows(ResponseException.class, ()-> regionService.findRegions(List.of()));
+    }
+
+    @Test
+    public void TestUpdateNameRegionByNameIsExact() {
+        regionService.add(new Region(null, "Region10", "R10"));
+        Region region20 = regionService.add(new Region(null, "Region20", "R20"));
+        Update rename = new Update();
+        rename.setLastName("Region20");
+        rename.setNewName("Region10");
+        List<Region> renamed = regionService.updateNameRegionByName(rename);
+        Assert.assertEquals(1, renamed.size());
+        Assert.assertEquals(region20.getId(), renamed.get(0).getId());
+        Assert.assertEquals("Region10", renamed.get(0).getName());
+        Assert.assertEquals(2, regionService.findByName("Region10").size());
+        Assert.assertThrows(NO_REGION_RESPONSE, ResponseException.class, ()-> regionService.updateNameRegionByName(rename));
+    }
+
+    @Test
+    public void TestMissIsForgottenOnAdd() {
+        Assert.assertThrows(NO_REGION_RESPONSE, NotFoundException.class, ()-> regionService.findByName("Region30"));
+        Assert.assertThrows(NO_REGION_RESPONSE, NotFoundException.class, ()-> regionService.findByName("Region30"));
+        Region region30 = regionService.add(new Region(null, "Region30", "R30"));
+        Assert.assertEquals(region30.getId(), regionService.findByName("Region30").get(0).getId());
+    }
+
+    @Test
+    public void TestNormalizedLookups() {
+        Region region30 = regionService.add(new Region(null, "Region30", "R30"));
+        Assert.assertThrows(NO_REGION_RESPONSE, NotFoundException.class, ()-> regionService.findByName(" region30 "));
+        Assert.assertEquals(region30.getId(), regionService.findByNameNormalized(" REGION30 ").get(0).getId());
+        Assert.assertEquals(region30.getId(), regionService.findByShortNameNormalized("r30").get(0).getId());
+        Assert.assertEquals(region30.getId(),
+                regionService.findByNameAndShortNameNormalized("Ｒｅｇｉｏｎ30", " r30").getId());
+        Assert.assertThrows(ALREADY_EXISTS, ResponseException.class,
+                ()-> regionService.add(new Region(null, "region30", "R30 ")));
+        List<RegionBatchItem> nearDuplicates = regionService.addBatch(List.of(
+                new Region(null, "REGION30", "r30"), new Region(null, "Region 31", "R31"),
+                new Region(null, "region  31", "r31")));
+        Assert.assertEquals(RegionBatchItem.Status.DUPLICATE, nearDuplicates.get(0).getStatus());
+        Assert.assertEquals(RegionBatchItem.Status.CREATED, nearDuplicates.get(1).getStatus());
+        Assert.assertEquals(RegionBatchItem.Status.DUPLICATE, nearDuplicates.get(2).getStatus());
+        Assert.assertThrows(NO_REGION_RESPONSE, NotFoundException.class, ()-> regionService.findByNameNormalized("region32"));
+        Region region32 = regionService.add(new Region(null, "Region32", "R32"));
+        Assert.assertEquals(region32.getId(), regionService.findByNameNormalized("region32").get(0).getId());
+    }
+
+    @Test
+    public void TestNameLimits() {
+        String ligatures = "\uFDFA".repeat(100);
+        Region region40 = regionService.add(new Region(null, ligatures, "R40"));
+        Assert.assertEquals(region40.getId(), regionService.findByNameAndShortNameNormalized(ligatures, "r40").getId());
+
+        Assert.assertEquals(RegionService.WRONG_NAME, Assert.assertThrows(InvalidRegionException.class,
+                ()-> regionService.add(new Region(null, "R".repeat(101), "R41"))).getMessage());
+        Assert.assertEquals(RegionService.WRONG_NAME, Assert.assertThrows(InvalidRegionException.class,
+                ()-> regionService.add(new Region(null, "Region41", " "))).getMessage());
+        Assert.assertThrows(InvalidRegionException.class,
+                ()-> regionService.addBatch(List.of(new Region(null, "Region41", "R41"), new Region(null, null, "R42"))));
+        Assert.assertThrows(InvalidRegionException.class,
+                ()-> regionService.updateNameRegion(new Region(region40.getId(), "", null)));
+        Assert.assertEquals(1, regionService.findAllRegions().size());
+    }
+
+    @Test
+    public void TestConcurrentDuplicateAdd() throws Exception {
+        int writers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Region>> results = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            String shortName = i % 2 == 0 ? "R50" : " r50";
+            results.add(executor.submit(() -> {
+                start.await();
+                return regionService.add(new Region(null, "Region50", shortName));
+            }));
+        }
+        start.countDown();
+        int added = 0;
+        for (Future<Region> result : results) {
+            try {
+                result.get(30, TimeUnit.SECONDS);
+                added++;
+            } catch (ExecutionException e) {
+                Assert.assertEquals(ALREADY_EXISTS, e.getCause().getMessage());
+            }
+        }
+        executor.shutdown();
+        Assert.assertEquals(1, added);
+        Assert.assertEquals(1, regionService.findByNameNormalized("region50").size());
+    }
+
+    @Test
+    public void TestConcurrentUpdatesAreNotLost() throws Exception {
+        Region region51 = regionService.add(new Region(null, "Region51", "R51"));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> names = executor.submit(() -> {
+            for (int i = 0; i < 50; i++) {
+                regionService.updateNameRegion(new Region(region51.getId(), "Region51-" + i, null));
+            }
+        });
+        Future<?> shortNames = executor.submit(() -> {
+            for (int i = 0; i < 50; i++) {
+                regionService.updateShortNameRegion(new Region(region51.getId(), null, "R51-" + i));
+            }
+        });
+        names.get(30, TimeUnit.SECONDS);
+        shortNames.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        Region updated = regionService.findRegion(region51.getId());
+        Assert.assertEquals("Region51-49", updated.getName());
+        Assert.assertEquals("R51-49", updated.getShortName());
+    }
 }
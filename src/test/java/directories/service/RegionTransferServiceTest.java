@@ -0,0 +1,76 @@
+package directories.service;
+
+import directories.RegionDirectoryReset;
+import directories.model.RegionFormat;
+import directories.model.RegionImportSummary;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This @code{RegionTransferServiceTest} class tests @code{RegionTransferService} class.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Import(RegionDirectoryReset.class)
+public class RegionTransferServiceTest {
+
+    @Autowired
+    private RegionDirectoryReset directoryReset;
+
+    @Autowired
+    private RegionTransferService transferService;
+
+    @Autowired
+    private RegionService regionService;
+
+    @Before
+    public void clean() {
+        directoryReset.clear();
+    }
+
+    @Test
+    public void TestImportRejectsRows() {
+        RegionImportSummary summary = importCsv("name,shortName\n"
+                + "\"North\nWest\",NW\n"
+                + "Moscow,MSK\n"
+                + "Moscow,MSK\n"
+                + "R".repeat(101) + ",LONG\n"
+                + "Tver,\n"
+                + "\"Open,OP\n");
+
+        Assert.assertEquals(6, summary.getRows());
+        Assert.assertEquals(2, summary.getCreated());
+        Assert.assertEquals(1, summary.getDuplicates());
+        Assert.assertEquals(3, summary.getRejected());
+        Assert.assertEquals("NW", regionService.findByName("North\nWest").get(0).getShortName());
+    }
+
+    @Test
+    public void TestExportRoundTrip() {
+        importCsv("\"North\r\nWest, \"\"old\"\"\",NW\nMoscow,MSK\n");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Assert.assertEquals(2, transferService.exportRegions(out, RegionFormat.CSV));
+
+        clean();
+        RegionImportSummary summary = transferService.importRegions(
+                new ByteArrayInputStream(out.toByteArray()), RegionFormat.CSV);
+        Assert.assertEquals(2, summary.getCreated());
+        Assert.assertEquals(0, summary.getRejected());
+        Assert.assertEquals("NW", regionService.findByName("North\nWest, \"old\"").get(0).getShortName());
+    }
+
+    private RegionImportSummary importCsv(String content) {
+        return transferService.importRegions(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), RegionFormat.CSV);
+    }
+}
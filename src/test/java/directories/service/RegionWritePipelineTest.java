@@ -0,0 +1,162 @@
+package directories.service;
+
+import directories.RegionDirectoryReset;
+import directories.exception.NotFoundException;
+import directories.exception.ResponseException;
+import directories.model.Region;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * This @code{RegionWritePipelineTest} class tests @code{RegionWritePipeline} class. The delay is long enough
+ * for all updates submitted by a test to go into one batch.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "directories.write-pipeline.enabled=true",
+        "directories.write-pipeline.max-delay=200ms"
+})
+@Import(RegionDirectoryReset.class)
+public class RegionWritePipelineTest {
+
+    private static final String NO_REGION_RESPONSE = "No such region";
+    private static final String ALREADY_EXISTS = "Region with such data already exists";
+
+    @Autowired
+    private RegionDirectoryReset directoryReset;
+
+    @Autowired
+    private RegionWritePipeline writePipeline;
+
+    @Autowired
+    private RegionService regionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Before
+    public void clean() {
+        directoryReset.clear();
+    }
+
+    @Test
+    public void TestBatch() {
+        List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            regions.add(regionService.add(new Region(null, "Region" + i, "R" + i)));
+        }
+        long reads = findByIdsCount();
+
+        List<CompletableFuture<Region>> results = new ArrayList<>();
+        for (Region region : regions) {
+            results.add(writePipeline.submit(update(RegionUpdate.Kind.NAME, region.getId(), region.getName() + "0", null)));
+        }
+        for (int i = 0; i < regions.size(); i++) {
+            Assert.assertEquals("Region" + i + "0", results.get(i).join().getName());
+            Assert.assertEquals("Region" + i + "0", regionService.findRegion(regions.get(i).getId()).getName());
+        }
+        Assert.assertEquals(reads + 1, findByIdsCount());
+    }
+
+    @Test
+    public void TestSameRegionInBatch() {
+        Region region = regionService.add(new Region(null, "Region1", "R1"));
+
+        CompletableFuture<Region> name = writePipeline.submit(update(RegionUpdate.Kind.NAME, region.getId(), "Region2", null));
+        CompletableFuture<Region> shortName = writePipeline.submit(update(RegionUpdate.Kind.SHORT_NAME, region.getId(), null, "R2"));
+
+        Assert.assertEquals("R1", name.join().getShortName());
+        Assert.assertEquals("Region2", shortName.join().getName());
+        Assert.assertEquals("R2", shortName.join().getShortName());
+        Assert.assertEquals("Region2", regionService.findRegion(region.getId()).getName());
+        Assert.assertEquals("R2", regionService.findRegion(region.getId()).getShortName());
+    }
+
+    @Test
+    public void TestResultPerCaller() {
+        Region region1 = regionService.add(new Region(null, "Region1", "R1"));
+        Region region2 = regionService.add(new Region(null, "Region2", "R2"));
+
+        CompletableFuture<Region> updated = writePipeline.submit(update(RegionUpdate.Kind.NAME, region1.getId(), "Region11", null));
+        CompletableFuture<Region> missing = writePipeline.submit(update(RegionUpdate.Kind.NAME, 100L, "Region100", null));
+        CompletableFuture<Region> unchanged = writePipeline.submit(update(RegionUpdate.Kind.REGION, region2.getId(), "Region2", "R2"));
+
+        Assert.assertEquals("Region11", updated.join().getName());
+        assertFails(missing, NotFoundException.class, NO_REGION_RESPONSE);
+        assertFails(unchanged, ResponseException.class, ALREADY_EXISTS);
+    }
+
+    @Test
+    public void TestFallbackToSingleUpdates() {
+        Region region1 = regionService.add(new Region(null, "Region1", "R1"));
+        Region region2 = regionService.add(new Region(null, "Region2", "R1"));
+        Region region3 = regionService.add(new Region(null, "Region3", "R3"));
+
+        CompletableFuture<Region> updated = writePipeline.submit(update(RegionUpdate.Kind.NAME, region3.getId(), "Region33", null));
+        CompletableFuture<Region> duplicate = writePipeline.submit(update(RegionUpdate.Kind.NAME, region1.getId(), "Region2", null));
+        CompletableFuture<Region> missing = writePipeline.submit(update(RegionUpdate.Kind.NAME, 100L, "Region100", null));
+
+        Assert.assertEquals("Region33", updated.join().getName());
+        assertFails(duplicate, ResponseException.class, ALREADY_EXISTS);
+        assertFails(missing, NotFoundException.class, NO_REGION_RESPONSE);
+        Assert.assertEquals("Region1", regionService.findRegion(region1.getId()).getName());
+        Assert.assertEquals("Region2", regionService.findRegion(region2.getId()).getName());
+        Assert.assertEquals("Region33", regionService.findRegion(region3.getId()).getName());
+    }
+
+    @Test
+    public void TestStop() throws InterruptedException {
+        Region region = regionService.add(new Region(null, "Region1", "R1"));
+        RegionWritePipeline pipeline = new RegionWritePipeline();
+        ReflectionTestUtils.setField(pipeline, "regionService", writePipeline.regionService);
+        ReflectionTestUtils.setField(pipeline, "changePublisher", writePipeline.changePublisher);
+        ReflectionTestUtils.setField(pipeline, "regionLocks", writePipeline.regionLocks);
+        ReflectionTestUtils.setField(pipeline, "batchSqlSessionTemplate", writePipeline.batchSqlSessionTemplate);
+        ReflectionTestUtils.setField(pipeline, "transactionTemplate", writePipeline.transactionTemplate);
+        ReflectionTestUtils.setField(pipeline, "batchSize", 100);
+        ReflectionTestUtils.setField(pipeline, "maxDelay", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 10);
+        pipeline.start();
+
+        CompletableFuture<Region> queued = pipeline.submit(update(RegionUpdate.Kind.NAME, region.getId(), "Region11", null));
+        pipeline.stop();
+
+        Assert.assertEquals("Region11", queued.join().getName());
+        assertFails(pipeline.submit(update(RegionUpdate.Kind.NAME, region.getId(), "Region12", null)),
+                IllegalStateException.class, "Write pipeline is stopped");
+    }
+
+    private long findByIdsCount() {
+        Timer timer = meterRegistry.find("region.mapper").tag("statement", "RegionMapper.findByIds").timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private static void assertFails(CompletableFuture<Region> result, Class<? extends Throwable> type, String message) {
+        try {
+            result.join();
+            Assert.fail("Expected " + type.getSimpleName());
+        } catch (CompletionException e) {
+            Assert.assertEquals(type, e.getCause().getClass());
+            Assert.assertEquals(message, e.getCause().getMessage());
+        }
+    }
+
+    private static RegionUpdate update(RegionUpdate.Kind kind, Long id, String name, String shortName) {
+        return new RegionUpdate(kind, new Region(id, name, shortName));
+    }
+}
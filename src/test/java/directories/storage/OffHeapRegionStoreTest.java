@@ -0,0 +1,62 @@
+package directories.storage;
+
+import directories.model.Region;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * This @code{OffHeapRegionStoreTest} class tests @code{OffHeapRegionStore} class.
+ */
+public class OffHeapRegionStoreTest {
+
+    @Test
+    public void TestLookupsApplyAndCompaction() {
+        OffHeapRegionStore store = new OffHeapRegionStore(4096, 2);
+        store.put(new Region(2L, "Регион2", "R1"));
+        store.put(new Region(1L, "Region1", "R1"));
+        store.put(new Region(3L, "Регион2", "R3"));
+
+        Assert.assertEquals(3, store.size());
+        Assert.assertEquals(Long.valueOf(1L), store.findAllRegions().get(0).getId());
+        Assert.assertEquals("Регион2", store.findById(3L).getName());
+        Assert.assertNull(store.findById(4L));
+        Assert.assertEquals(2, store.findByName("Регион2").size());
+        Assert.assertEquals(Long.valueOf(1L), store.findByShortName("R1").get(0).getId());
+        Assert.assertTrue(store.findByName("Region33").isEmpty());
+        Assert.assertEquals(Long.valueOf(2L), store.findByNameAndShortName("Регион2", "R1").getId());
+        Assert.assertNull(store.findByNameAndShortName("Region1", "R3"));
+        Assert.assertTrue(store.findByName(null).isEmpty());
+        Assert.assertTrue(store.findByShortName(null).isEmpty());
+        Assert.assertNull(store.findByNameAndShortName("Region1", null));
+        Assert.assertNull(store.findByNameAndShortName(null, "R1"));
+
+        store.apply(List.of(new Region(1L, "Region1", "R1"), new Region(3L, "Регион2", "R3")),
+                List.of(new Region(3L, "Region3", "R3"), new Region(4L, "Region4", "R4")));
+        Assert.assertEquals(3, store.size());
+        Assert.assertNull(store.findById(1L));
+        Assert.assertEquals("Region3", store.findById(3L).getName());
+        Assert.assertEquals(1, store.findByName("Регион2").size());
+        Assert.assertEquals(Long.valueOf(4L), store.findAllRegions().get(2).getId());
+
+        for (long id = 100; id < 2100; id++) {
+            store.apply(List.of(), List.of(new Region(id, "Region" + id, "R" + id)));
+        }
+        for (int round = 0; round < 10; round++) {
+            for (long id = 100; id < 2100; id++) {
+                store.apply(List.of(), List.of(new Region(id, "Region" + id + "-" + round, "R" + id)));
+            }
+        }
+        for (long id = 100; id < 2100; id += 2) {
+            store.apply(List.of(new Region(id, null, null)), List.of());
+        }
+        Assert.assertEquals(1003, store.size());
+        Assert.assertTrue(store.arenaBytes() < 32 * 4096);
+        Assert.assertNull(store.findById(100L));
+        Assert.assertEquals("Region2099-9", store.findById(2099L).getName());
+        Assert.assertEquals(Long.valueOf(2099L), store.findByShortName("R2099").get(0).getId());
+        Assert.assertTrue(store.findByName("Region2099-8").isEmpty());
+        Assert.assertEquals(Long.valueOf(2L), store.findByNameAndShortName("Регион2", "R1").getId());
+    }
+}
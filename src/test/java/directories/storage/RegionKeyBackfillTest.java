@@ -0,0 +1,82 @@
+package directories.storage;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * This @code{RegionKeyBackfillTest} class tests @code{RegionKeyBackfill} class on a database of its own,
+ * created before the key columns existed.
+ */
+public class RegionKeyBackfillTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void create() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:backfill;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE REGIONS(id INTEGER PRIMARY KEY AUTO_INCREMENT, "
+                + "name VARCHAR(100) NOT NULL, shortName VARCHAR(100) NOT NULL, "
+                + "CONSTRAINT UQ_REGIONS_NAME_SHORTNAME UNIQUE (name, shortName))");
+        jdbcTemplate.execute("ALTER TABLE REGIONS ADD COLUMN nameKey VARCHAR(400)");
+        jdbcTemplate.execute("ALTER TABLE REGIONS ADD COLUMN shortNameKey VARCHAR(400)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX UQ_REGIONS_KEYS ON REGIONS(nameKey, shortNameKey)");
+        jdbcTemplate.update("INSERT INTO REGIONS(name, shortName) VALUES ('Alpha', 'AL'), ('alpha ', 'AL'), ('Beta', 'BE')");
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource("schema.sql")), dataSource);
+    }
+
+    @After
+    public void drop() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    public void TestDuplicatesDontFailStartup() {
+        Assert.assertEquals(3, RegionKeyBackfill.fill(dataSource));
+
+        Assert.assertEquals(1, count("SELECT COUNT(*) FROM REGIONS WHERE nameKey = 'alpha' AND shortNameKey = 'al'"));
+        Assert.assertEquals(2, count("SELECT id FROM REGIONS WHERE nameKey IS NULL AND shortNameKey = 'al'"));
+        Assert.assertEquals(1, index("UQ_REGIONS_KEYS"));
+        Assert.assertEquals(0, index("IDX_REGIONS_KEYS"));
+        Assert.assertEquals(1800, count("SELECT CHARACTER_MAXIMUM_LENGTH FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE TABLE_NAME = 'REGIONS' AND COLUMN_NAME = 'NAMEKEY'"));
+
+        Assert.assertEquals(0, RegionKeyBackfill.fill(dataSource));
+        Assert.assertEquals(1, count("SELECT COUNT(*) FROM REGIONS WHERE nameKey IS NULL"));
+    }
+
+    @Test
+    public void TestMergedDuplicatesLeaveNoRowsWithoutKeys() {
+        RegionKeyBackfill.fill(dataSource);
+        jdbcTemplate.update("DELETE FROM REGIONS WHERE name = 'alpha '");
+
+        Assert.assertEquals(0, RegionKeyBackfill.fill(dataSource));
+        Assert.assertEquals(0, count("SELECT COUNT(*) FROM REGIONS WHERE nameKey IS NULL"));
+        Assert.assertEquals(1, index("UQ_REGIONS_KEYS"));
+    }
+
+    @Test
+    public void TestSchemaCreatesUniqueKeys() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource("schema.sql")), dataSource);
+
+        Assert.assertEquals(1, index("UQ_REGIONS_KEYS"));
+        Assert.assertEquals(0, RegionKeyBackfill.fill(dataSource));
+    }
+
+    private int index(String name) {
+        return count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = '" + name + "'");
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
@@ -0,0 +1,41 @@
+package directories.storage;
+
+import directories.event.RegionChangeEvent;
+import directories.model.Region;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * This @code{RegionPrefixIndexTest} class tests @code{RegionPrefixIndex} class.
+ */
+public class RegionPrefixIndexTest {
+
+    @Test
+    public void TestSuggest() {
+        RegionPrefixIndex index = new RegionPrefixIndex();
+        index.load(List.of(
+                new Region(1L, "Moscow", "MOW"),
+                new Region(2L, "Moscow Oblast", "MOS"),
+                new Region(3L, "Murmansk", "MUR")));
+
+        List<Region> regions = index.suggest("mos", 10);
+        Assert.assertEquals(2, regions.size());
+        Assert.assertEquals(Long.valueOf(2L), regions.get(0).getId());
+        Assert.assertEquals(Long.valueOf(1L), regions.get(1).getId());
+
+        Assert.assertEquals(3, index.suggest(" M", 10).size());
+        Assert.assertEquals(2, index.suggest("m", 2).size());
+        Assert.assertTrue(index.suggest("x", 10).isEmpty());
+
+        index.onRegionChange(RegionChangeEvent.updated(new Region(3L, "Murmansk", "MUR"),
+                new Region(3L, "Moscow City", "MUR")));
+        Assert.assertEquals(3, index.suggest("mos", 10).size());
+        Assert.assertEquals(1, index.suggest("mu", 10).size());
+
+        index.onRegionChange(RegionChangeEvent.deleted(List.of(new Region(1L, "Moscow", "MOW"))));
+        Assert.assertTrue(index.suggest("mow", 10).isEmpty());
+        Assert.assertEquals(2, index.suggest("moscow", 10).size());
+    }
+}
@@ -0,0 +1,116 @@
+package directories.storage;
+
+import directories.model.Region;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This @code{RegionSnapshotFileTest} class tests @code{RegionSnapshotFile} and @code{RegionSnapshotWriter}
+ * classes on a database of their own.
+ */
+public class RegionSnapshotFileTest {
+
+    private static final String NAME = "Ｓａｎｋｔ-Петербург, \"city\" " + "я".repeat(60);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private Path file;
+
+    @Before
+    public void create() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:snapshot;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource("schema.sql")), dataSource);
+        RegionKeyBackfill.fill(dataSource);
+        jdbcTemplate.update("INSERT INTO REGIONS(id, name, shortName) VALUES (1, 'Region1', 'R1'), (5, ?, 'SPB'), (9, 'Region9', 'R9')",
+                NAME);
+        file = folder.getRoot().toPath().resolve("data").resolve("regions.snapshot");
+    }
+
+    @After
+    public void drop() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    public void TestDumpAndRestore() {
+        Assert.assertEquals(3, RegionSnapshotFile.dump(dataSource, file));
+        List<Region> read = new ArrayList<>();
+        RegionSnapshotFile.read(file, read::add);
+        Assert.assertEquals(3, read.size());
+        Assert.assertEquals(Long.valueOf(5L), read.get(1).getId());
+        Assert.assertEquals(NAME, read.get(1).getName());
+
+        jdbcTemplate.update("DELETE FROM REGIONS");
+        Assert.assertEquals(3, RegionSnapshotFile.restore(dataSource, file));
+
+        Assert.assertEquals(NAME, jdbcTemplate.queryForObject("SELECT name FROM REGIONS WHERE id = 5", String.class));
+        Assert.assertEquals("region9", jdbcTemplate.queryForObject("SELECT nameKey FROM REGIONS WHERE id = 9", String.class));
+        jdbcTemplate.update("INSERT INTO REGIONS(name, shortName) VALUES ('Region10', 'R10')");
+        Assert.assertEquals(Long.valueOf(10L),
+                jdbcTemplate.queryForObject("SELECT id FROM REGIONS WHERE name = 'Region10'", Long.class));
+    }
+
+    @Test
+    public void TestRestoreOnlyIntoEmptyDatabase() {
+        Assert.assertEquals(0, RegionSnapshotFile.restore(dataSource, file));
+        RegionSnapshotFile.dump(dataSource, file);
+        jdbcTemplate.update("DELETE FROM REGIONS WHERE id = 1");
+
+        Assert.assertEquals(0, RegionSnapshotFile.restore(dataSource, file));
+        Assert.assertEquals(Integer.valueOf(2), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM REGIONS", Integer.class));
+    }
+
+    @Test
+    public void TestFailedDumpKeepsFile() throws Exception {
+        RegionSnapshotFile.dump(dataSource, file);
+        byte[] dumped = Files.readAllBytes(file);
+        jdbcTemplate.execute("ALTER TABLE REGIONS RENAME TO REGIONS_OLD");
+        try {
+            Assert.assertThrows(IllegalStateException.class, () -> RegionSnapshotFile.dump(dataSource, file));
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE REGIONS_OLD RENAME TO REGIONS");
+        }
+        Assert.assertArrayEquals(dumped, Files.readAllBytes(file));
+        try (var files = Files.list(file.getParent())) {
+            Assert.assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void TestUnknownFormat() throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        Assert.assertThrows(IllegalStateException.class, () -> RegionSnapshotFile.read(file, region -> {}));
+    }
+
+    @Test
+    public void TestWriterDumpsOnShutdown() {
+        RegionSnapshotWriter writer = new RegionSnapshotWriter();
+        writer.dataSource = dataSource;
+        ReflectionTestUtils.setField(writer, "file", file);
+        writer.write();
+
+        List<Region> read = new ArrayList<>();
+        RegionSnapshotFile.read(file, read::add);
+        Assert.assertEquals(3, read.size());
+    }
+}
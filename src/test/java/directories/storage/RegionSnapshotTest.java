@@ -0,0 +1,44 @@
+package directories.storage;
+
+import directories.model.Region;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * This @code{RegionSnapshotTest} class tests @code{RegionSnapshot} class.
+ */
+public class RegionSnapshotTest {
+
+    @Test
+    public void TestLookupsAndApply() {
+        RegionSnapshot snapshot = RegionSnapshot.of(List.of(
+                new Region(2L, "Region2", "R1"),
+                new Region(1L, "Region1", "R1"),
+                new Region(3L, "Region2", "R3")));
+
+        Assert.assertEquals(3, snapshot.size());
+        Assert.assertEquals(Long.valueOf(1L), snapshot.findAllRegions().get(0).getId());
+        Assert.assertEquals("Region2", snapshot.findById(3L).getName());
+        Assert.assertNull(snapshot.findById(4L));
+        Assert.assertEquals(2, snapshot.findByName("Region2").size());
+        Assert.assertEquals(2, snapshot.findByShortName("R1").size());
+        Assert.assertTrue(snapshot.findByName("Region33").isEmpty());
+        Assert.assertEquals(Long.valueOf(2L), snapshot.findByNameAndShortName("Region2", "R1").getId());
+        Assert.assertNull(snapshot.findByNameAndShortName("Region1", "R3"));
+
+        RegionSnapshot next = snapshot.apply(
+                List.of(new Region(1L, "Region1", "R1"), new Region(3L, "Region2", "R3")),
+                List.of(new Region(3L, "Region3", "R3"), new Region(4L, "Region4", "R4")));
+
+        Assert.assertEquals(3, next.size());
+        Assert.assertNull(next.findById(1L));
+        Assert.assertEquals("Region3", next.findById(3L).getName());
+        Assert.assertEquals(1, next.findByName("Region2").size());
+        Assert.assertEquals(Long.valueOf(4L), next.findAllRegions().get(2).getId());
+
+        Assert.assertEquals(3, snapshot.size());
+        Assert.assertEquals("Region2", snapshot.findById(3L).getName());
+    }
+}